@@ -0,0 +1,61 @@
+import java.util.function.Consumer;
+
+/**
+ * Compiled DeckFilter (one removeIf pass) against the equivalent chain of Deck tab
+ * operations (one removeIf pass each). Times exclude the resetToFull() between runs.
+ *
+ *   java -cp <classes> DeckFilterBenchmark [iterations]
+ */
+public class DeckFilterBenchmark {
+
+    public static void main(String[] args){
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        compare("remove hearts | diamonds | faces", iterations, d -> {
+            d.removeSuit(gamePanel.Suit.HEARTS);
+            d.removeSuit(gamePanel.Suit.DIAMONDS);
+            d.removeFaces();
+        });
+        compare("keep black & rank>=2", iterations, d -> {
+            d.removeColor(gamePanel.ColorType.RED);
+            d.removeCard("A", gamePanel.Suit.CLUBS);
+            d.removeCard("A", gamePanel.Suit.SPADES);
+        });
+        compare("remove clubs | spades | rank=K | rank=Q", iterations, d -> {
+            d.removeSuit(gamePanel.Suit.CLUBS);
+            d.removeSuit(gamePanel.Suit.SPADES);
+            for (gamePanel.Suit s : gamePanel.Suit.values()) { d.removeCard("K", s); d.removeCard("Q", s); }
+        });
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < iterations; i++) DeckFilter.compile("remove red & rank<=5");
+        System.out.printf("cached compile lookup: %.1f ns/op%n", (System.nanoTime() - t0) / (double) iterations);
+    }
+
+    private static void compare(String expr, int iterations, Consumer<gamePanel.Deck> chained){
+        gamePanel.Deck a = new gamePanel.Deck();
+        gamePanel.Deck b = new gamePanel.Deck();
+        chained.accept(a);
+        b.retain(DeckFilter.compile(expr));
+        if (!a.asList().toString().equals(b.asList().toString())) throw new AssertionError("results differ for " + expr);
+
+        for (int round = 0; round < 3; round++){ // first rounds are warm-up
+            double reset = time(iterations, a, d -> { });
+            double chain = time(iterations, a, chained) - reset;
+            double filter = time(iterations, b, d -> d.retain(DeckFilter.compile(expr))) - reset;
+            if (round == 2) {
+                System.out.printf("%-42s chained %7.1f ns/op   compiled %7.1f ns/op   (%.2fx)%n",
+                        expr, chain, filter, chain / filter);
+            }
+        }
+    }
+
+    private static double time(int iterations, gamePanel.Deck deck, Consumer<gamePanel.Deck> op){
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++){
+            deck.resetToFull();
+            op.accept(deck);
+        }
+        return (System.nanoTime() - start) / (double) iterations;
+    }
+}
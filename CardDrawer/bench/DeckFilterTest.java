@@ -0,0 +1,58 @@
+/**
+ * Parser checks for DeckFilter: good expressions keep the expected cards, and every bad one,
+ * blank input included, fails with IllegalArgumentException (what the Deck tab catches).
+ * Exits 1 on the first failure.
+ *
+ *   java -cp <classes> DeckFilterTest
+ */
+public class DeckFilterTest {
+
+    private static int failures = 0;
+
+    public static void main(String[] args){
+        keeps("keep all", 54);
+        keeps("remove red", 27);
+        keeps("keep hearts | spades", 26);
+        keeps("remove red & rank<=5", 54 - 10);
+        keeps("keep faces & !clubs", 9);
+        keeps("  KEEP  Jokers ", 2);
+
+        rejects("");
+        rejects("   ");
+        rejects("\t\n");
+        rejects("keep");
+        rejects("remove");
+        rejects("discard red");
+        rejects("keep red &");
+        rejects("keep (red | black");
+        rejects("keep rank");
+        rejects("keep rank < Z");
+        rejects("keep rank ~ 5");
+        rejects("keep red black");
+        rejects("keep purple");
+
+        System.out.println(failures == 0 ? "PASS" : "FAIL: " + failures);
+        if (failures > 0) System.exit(1);
+    }
+
+    private static void keeps(String expr, int cards){
+        long mask = DeckFilter.compile(expr).keepMask;
+        if (Long.bitCount(mask) != cards){
+            System.out.printf("'%s' keeps %d cards, expected %d%n", expr, Long.bitCount(mask), cards);
+            failures++;
+        }
+    }
+
+    private static void rejects(String expr){
+        try {
+            DeckFilter.compile(expr);
+            System.out.printf("'%s' compiled, expected an error%n", expr);
+            failures++;
+        } catch (IllegalArgumentException ex){
+            System.out.printf("'%s' -> %s%n", expr.replace("\t", "\\t").replace("\n", "\\n"), ex.getMessage());
+        } catch (RuntimeException ex){
+            System.out.printf("'%s' threw %s, expected IllegalArgumentException%n", expr, ex);
+            failures++;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Footprint of DeckHistory over a long run of random Deck tab edits, and a full check that
+ * undoing every step and redoing it again reproduces each deck state, order included.
+ * Exits 1 on a mismatch.
+ *
+ *   java -cp <classes> DeckHistoryBenchmark [edits]
+ */
+public class DeckHistoryBenchmark {
+
+    private static final String[] RANKS = {"A","2","3","4","5","6","7","8","9","10","J","Q","K"};
+
+    public static void main(String[] args){
+        int edits = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        Random rng = new Random(7);
+        gamePanel.Deck deck = new gamePanel.Deck();
+        DeckHistory history = new DeckHistory();
+        List<int[]> states = new ArrayList<>(); // states.get(i) = deck after i recorded edits
+        DeckHistory.Version current = deck.snapshot(null);
+        states.add(current.ordinals());
+        long t0 = System.nanoTime();
+        for (int recorded = 0; recorded < edits; ){
+            edit(deck, rng);
+            DeckHistory.Version after = deck.snapshot(current);
+            if (after == current) continue;
+            history.record(current, after);
+            current = after;
+            states.add(current.ordinals());
+            recorded++;
+        }
+        double recordUs = (System.nanoTime() - t0) / 1e3 / edits;
+        int kept = Math.min(edits, 4096);
+        System.out.printf("%,d edits recorded, %,d kept: %,d bytes of steps (%.1f bytes/step) in %,d allocated, %.1f us/edit%n",
+                edits, kept, history.stepBytes(), history.stepBytes() / (double) kept, history.footprint(), recordUs);
+
+        boolean ok = true;
+        int steps = 0;
+        for (int i = states.size() - 1; history.canUndo(); i--, steps++){
+            current = history.undo(current);
+            ok &= Arrays.equals(current.ordinals(), states.get(i - 1));
+        }
+        ok &= steps == kept;
+        for (int i = states.size() - steps; history.canRedo(); i++){
+            current = history.redo(current);
+            ok &= Arrays.equals(current.ordinals(), states.get(i));
+        }
+        ok &= Arrays.equals(current.ordinals(), states.get(states.size() - 1));
+        System.out.printf("undo %,d steps and redo them: %s%n", steps, ok ? "every state matches" : "MISMATCH");
+        System.out.println(ok ? "PASS" : "FAIL");
+        if (!ok) System.exit(1);
+    }
+
+    // one of the Deck tab's edits, picked at random
+    private static void edit(gamePanel.Deck d, Random rng){
+        gamePanel.Suit suit = gamePanel.Suit.values()[rng.nextInt(4)];
+        gamePanel.ColorType colour = gamePanel.ColorType.values()[rng.nextInt(2)];
+        String rank = RANKS[rng.nextInt(RANKS.length)];
+        switch (rng.nextInt(12)){
+            case 0: d.removeSuit(suit); break;
+            case 1: d.addSuit(suit); break;
+            case 2: d.removeColor(colour); break;
+            case 3: d.addColor(colour); break;
+            case 4: d.removeFaces(); break;
+            case 5: d.addFaces(); break;
+            case 6: case 7: d.removeCard(rank, suit); break;
+            case 8: case 9: d.addCard(rank, suit); break;
+            case 10: if (rng.nextBoolean()) d.addJokers(); else d.removeJokers(); break;
+            default: d.resetToFull();
+        }
+    }
+}
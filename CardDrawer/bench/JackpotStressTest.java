@@ -0,0 +1,175 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency stress test for JackpotPool.
+ *
+ *   1. Many threads contribute while some of their rounds, plus a dedicated thread, keep
+ *      hitting the jackpot. Contributed must equal awarded plus what is left, to the cent,
+ *      and no pool (epoch) may be paid to more than one hit.
+ *   2. All threads hit the same pool at once, over and over: exactly one must win it all.
+ *   3. Contribution throughput against a single AtomicLong, for what the striping saves.
+ *
+ * Exits 1 if any cent is lost or paid twice, or a pool is split.
+ *
+ *   java -cp <classes> JackpotStressTest [threads] [roundsPerThread]
+ */
+public class JackpotStressTest {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        long rounds = args.length > 1 ? (long) Double.parseDouble(args[1]) : 2_000_000L;
+        System.out.printf("%d threads x %,d rounds, a hit about every 10,000 rounds%n", threads, rounds);
+
+        boolean ok = conservation(threads, rounds);
+        ok &= simultaneousHits(Math.min(threads, 16), 2_000);
+        contributionThroughput(threads, rounds);
+
+        System.out.println(ok ? "PASS: every cent accounted for, no pool split" : "FAIL");
+        if (!ok) System.exit(1);
+    }
+
+    private static boolean conservation(int threads, long rounds) throws InterruptedException {
+        JackpotPool pool = new JackpotPool(Runtime.getRuntime().availableProcessors() * 4);
+        long[] contributed = new long[threads], awarded = new long[threads], hits = new long[threads];
+        Map<Long, AtomicInteger> winners = new ConcurrentHashMap<>(); // epoch -> non-zero awards
+        AtomicLong drainerAwarded = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++){
+            final int id = t;
+            Thread w = new Thread(() -> {
+                SplittableRandom rng = new SplittableRandom(id);
+                long in = 0, out = 0, n = 0;
+                awaitQuietly(start);
+                for (long r = 0; r < rounds; r++){
+                    long epoch = pool.epoch(); // the card is drawn
+                    long cents = 1 + rng.nextInt(500);
+                    pool.contribute(cents);
+                    in += cents;
+                    if (rng.nextInt(10_000) == 0){
+                        out += award(pool, epoch, winners);
+                        n++;
+                    }
+                }
+                contributed[id] = in;
+                awarded[id] = out;
+                hits[id] = n;
+            }, "table-" + t);
+            w.start();
+            workers.add(w);
+        }
+        // races every contributor with back-to-back hits
+        Thread drainer = new Thread(() -> {
+            awaitQuietly(start);
+            while (!Thread.currentThread().isInterrupted()){
+                drainerAwarded.addAndGet(award(pool, pool.epoch(), winners));
+                Thread.onSpinWait();
+            }
+        }, "drainer");
+        drainer.start();
+
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread w : workers) w.join();
+        double secs = (System.nanoTime() - t0) / 1e9;
+        drainer.interrupt();
+        drainer.join();
+
+        long in = 0, out = drainerAwarded.get(), n = 0;
+        for (int t = 0; t < threads; t++){ in += contributed[t]; out += awarded[t]; n += hits[t]; }
+        long left = pool.balance();
+        long finalDrain = pool.award(pool.epoch());
+        long split = winners.values().stream().filter(c -> c.get() > 1).count();
+        boolean ok = in == out + left && finalDrain == left && pool.balance() == 0 && split == 0;
+        System.out.printf("under load: %,.0f rounds/s, %,d hits, %,d pools paid, %d split; contributed %,d = awarded %,d + left %,d  %s%n",
+                threads * rounds / secs, n, winners.size(), split, in, out, left, ok ? "ok" : "MISMATCH");
+        return ok;
+    }
+
+    private static long award(JackpotPool pool, long epoch, Map<Long, AtomicInteger> winners){
+        long won = pool.award(epoch);
+        if (won > 0) winners.computeIfAbsent(epoch, e -> new AtomicInteger()).incrementAndGet();
+        return won;
+    }
+
+    // every thread draws against the same pool, then all hit it at once
+    private static boolean simultaneousHits(int threads, int trials) throws Exception {
+        JackpotPool pool = new JackpotPool(8);
+        long[][] won = new long[trials][threads];
+        CyclicBarrier drawn = new CyclicBarrier(threads), settled = new CyclicBarrier(threads);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++){
+            final int id = t;
+            Thread w = new Thread(() -> {
+                try {
+                    for (int i = 0; i < trials; i++){
+                        if (id == 0) pool.contribute(1_000);
+                        settled.await();
+                        long epoch = pool.epoch();
+                        drawn.await();
+                        won[i][id] = pool.award(epoch);
+                        settled.await();
+                    }
+                } catch (Exception ex){
+                    ex.printStackTrace();
+                }
+            }, "hit-" + t);
+            w.start();
+            workers.add(w);
+        }
+        for (Thread w : workers) w.join();
+        int bad = 0;
+        for (long[] trial : won){
+            int winners = 0;
+            long total = 0;
+            for (long c : trial){ if (c > 0) winners++; total += c; }
+            if (winners != 1 || total != 1_000) bad++;
+        }
+        System.out.printf("simultaneous hits: %d threads x %,d pools, %d not taken whole by one winner  %s%n",
+                threads, trials, bad, bad == 0 ? "ok" : "SPLIT");
+        return bad == 0;
+    }
+
+    private static void contributionThroughput(int threads, long rounds) throws InterruptedException {
+        JackpotPool striped = new JackpotPool(Runtime.getRuntime().availableProcessors() * 4);
+        AtomicLong single = new AtomicLong();
+        double a = contribute(threads, rounds, striped::contribute);
+        double b = contribute(threads, rounds, single::addAndGet);
+        System.out.printf("contributions/s: JackpotPool (%d stripes) %,.0f, single AtomicLong %,.0f%n", striped.stripes(), a, b);
+    }
+
+    interface Contribution { void add(long cents); }
+
+    private static double contribute(int threads, long rounds, Contribution c) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++){
+            Thread w = new Thread(() -> {
+                awaitQuietly(start);
+                for (long r = 0; r < rounds; r++) c.add(1 + (r & 255));
+            });
+            w.start();
+            workers.add(w);
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread w : workers) w.join();
+        return threads * rounds / ((System.nanoTime() - t0) / 1e9);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch){
+        try {
+            latch.await();
+        } catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+    }
+}
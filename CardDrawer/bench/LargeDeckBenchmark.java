@@ -0,0 +1,100 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * LargeDeck (Fenwick tree + presence bits) against the Deck layout scaled up: an ArrayList of
+ * card objects carrying a rank String, drawn with list.remove(random index).
+ *
+ * For each universe size it reports live heap per card, draws/s and the time to remove one
+ * suit and one rank. The list baseline gets fewer draws because each one is O(n).
+ *
+ *   java -Xmx4g -cp <classes> LargeDeckBenchmark [suits] [ranks]
+ */
+public class LargeDeckBenchmark {
+
+    // same shape as gamePanel.Card, whose Suit enum can't grow
+    static final class ListCard {
+        final String rank;
+        final int suit;
+        ListCard(String rank, int suit){ this.rank = rank; this.suit = suit; }
+    }
+
+    static Object sink;
+
+    public static void main(String[] args){
+        int suits = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int ranks = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        System.out.printf("%d suits x %d ranks = %,d card types%n", suits, ranks, (long) suits * ranks);
+        System.out.printf("%-12s %14s %14s %16s %16s%n", "deck", "bytes/card", "draws/s", "remove suit ms", "remove rank ms");
+        runLarge(suits, ranks);
+        runList(suits, ranks);
+    }
+
+    private static void runLarge(int suits, int ranks){
+        long base = liveHeap();
+        LargeDeck deck = new LargeDeck(suits, ranks);
+        double bytes = (liveHeap() - base) / (double) deck.universe();
+        sink = deck;
+
+        Random rng = new Random(1);
+        int draws = Math.min(5_000_000, deck.universe() / 2);
+        long t0 = System.nanoTime();
+        long sum = 0;
+        for (int i = 0; i < draws; i++) sum += deck.drawRandom(rng);
+        double drawsPerSec = draws / ((System.nanoTime() - t0) / 1e9);
+
+        t0 = System.nanoTime();
+        int a = deck.removeSuit(suits / 2);
+        double suitMs = (System.nanoTime() - t0) / 1e6;
+        t0 = System.nanoTime();
+        int b = deck.removeRank(ranks / 2);
+        double rankMs = (System.nanoTime() - t0) / 1e6;
+        check(deck.size() == deck.universe() - draws - a - b, "size mismatch");
+        for (int k = 0; k < 1000 && deck.size() > 0; k++){
+            int id = deck.select(rng.nextInt(deck.size()));
+            check(deck.contains(id) && deck.suitOf(id) != suits / 2 && deck.rankOf(id) != ranks / 2, "select returned a removed card");
+        }
+        sink = sum;
+        System.out.printf("%-12s %14.2f %,14.0f %16.3f %16.3f%n", "LargeDeck", bytes, drawsPerSec, suitMs, rankMs);
+    }
+
+    private static void runList(int suits, int ranks){
+        long base = liveHeap();
+        List<ListCard> cards = new ArrayList<>();
+        String[] rankNames = new String[ranks];
+        for (int r = 0; r < ranks; r++) rankNames[r] = "R" + r;
+        for (int s = 0; s < suits; s++) for (int r = 0; r < ranks; r++) cards.add(new ListCard(rankNames[r], s));
+        double bytes = (liveHeap() - base) / (double) cards.size();
+        sink = cards;
+
+        Random rng = new Random(1);
+        int draws = 2_000;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < draws; i++) sink = cards.remove(rng.nextInt(cards.size()));
+        double drawsPerSec = draws / ((System.nanoTime() - t0) / 1e9);
+
+        int suit = suits / 2;
+        String rank = rankNames[ranks / 2];
+        t0 = System.nanoTime();
+        cards.removeIf(c -> c.suit == suit);
+        double suitMs = (System.nanoTime() - t0) / 1e6;
+        t0 = System.nanoTime();
+        cards.removeIf(c -> c.rank.equals(rank));
+        double rankMs = (System.nanoTime() - t0) / 1e6;
+        System.out.printf("%-12s %14.2f %,14.0f %16.3f %16.3f%n", "ArrayList", bytes, drawsPerSec, suitMs, rankMs);
+    }
+
+    private static long liveHeap(){
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static void check(boolean ok, String what){
+        if (!ok){
+            System.err.println("FAILED: " + what);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * Bounds checks for LargeDeck: every entry point must reject out-of-range ids, suits and ranks
+ * with IllegalArgumentException and leave the deck untouched, and draws must stay consistent
+ * afterwards. Uses a universe that doesn't fill its last bitset word, so the spare bits past
+ * the last id are exercised. Exits 1 on any failure.
+ *
+ *   java -cp <classes> LargeDeckTest
+ */
+public class LargeDeckTest {
+
+    private static int failures = 0;
+
+    public static void main(String[] args){
+        LargeDeck d = new LargeDeck(3, 7); // 21 ids in a 64-bit word
+        int n = d.universe();
+        int[] badIds = {-1, n, n + 1, 63, 64, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int id : badIds){
+            rejects(d, "contains(" + id + ")", x -> d.contains(id));
+            rejects(d, "remove(" + id + ")", x -> d.remove(id));
+            rejects(d, "addCard(" + id + ")", x -> d.addCard(id));
+            rejects(d, "suitOf(" + id + ")", x -> d.suitOf(id));
+            rejects(d, "rankOf(" + id + ")", x -> d.rankOf(id));
+        }
+        for (int s : new int[]{-1, d.suits(), 1000}){
+            rejects(d, "removeSuit(" + s + ")", x -> d.removeSuit(s));
+            rejects(d, "addSuit(" + s + ")", x -> d.addSuit(s));
+            rejects(d, "id(" + s + ", 0)", x -> d.id(s, 0));
+        }
+        for (int r : new int[]{-1, d.ranks()}){
+            rejects(d, "id(0, " + r + ")", x -> d.id(0, r));
+            rejects(d, "removeRank(" + r + ")", x -> d.removeRank(r));
+        }
+        rejects(d, "removeRange(-1, 5)", x -> d.removeRange(-1, 5));
+        rejects(d, "removeRange(0, n + 1)", x -> d.removeRange(0, n + 1));
+        rejects(d, "removeRange(5, 4)", x -> d.removeRange(5, 4));
+        rejects(d, "countRange(0, n + 1)", x -> d.countRange(0, n + 1));
+        rejects(d, "select(size)", x -> d.select(d.size()));
+
+        // after all that, a full deck still draws every id exactly once
+        Random rng = new Random(1);
+        boolean[] seen = new boolean[n];
+        for (int i = 0; i < n; i++){
+            int id = d.drawRandom(rng);
+            if (id < 0 || id >= n || seen[id]){
+                System.out.println("draw " + i + " gave " + id);
+                failures++;
+                break;
+            }
+            seen[id] = true;
+        }
+        if (d.drawRandom(rng) != -1 || d.size() != 0){
+            System.out.println("deck not empty after " + n + " draws");
+            failures++;
+        }
+
+        System.out.println(failures == 0 ? "PASS" : "FAIL: " + failures);
+        if (failures > 0) System.exit(1);
+    }
+
+    private static void rejects(LargeDeck d, String call, IntConsumer op){
+        int size = d.size();
+        try {
+            op.accept(0);
+            System.out.println(call + " accepted");
+            failures++;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex){
+            if (d.size() != size){
+                System.out.println(call + " changed the size");
+                failures++;
+            }
+        } catch (RuntimeException ex){
+            System.out.println(call + " threw " + ex);
+            failures++;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Shuffle time for very large decks: the current path (Collections.shuffle over a List of
+ * boxed entries, as Deck.shuffle does), a sequential Fisher-Yates over int[], and
+ * ParallelShuffle with 1, 2, 4, ... worker threads up to the core count. Every result is
+ * checked to be a permutation.
+ *
+ *   java -Xmx4g -cp <classes> ParallelShuffleBenchmark [size] [repeats]
+ */
+public class ParallelShuffleBenchmark {
+
+    public static void main(String[] args){
+        int size = args.length > 0 ? (int) Double.parseDouble(args[0]) : 20_000_000;
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%,d entries, best of %d, %d cores%n", size, repeats, cores);
+        System.out.printf("%-28s %10s %10s%n", "shuffle", "ms", "speedup");
+
+        List<Integer> boxed = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) boxed.add(i);
+        Random random = new Random(1);
+        double base = best(repeats, () -> Collections.shuffle(boxed, random));
+        print("Collections.shuffle (List)", base, base);
+        boxed.clear();
+
+        int[] a = new int[size];
+        SplittableRandom rng = new SplittableRandom(1);
+        print("Fisher-Yates int[]", best(repeats, () -> {
+            identity(a);
+            ParallelShuffle.fisherYates(a, 0, a.length, rng);
+        }) - identityMs(a, repeats), base);
+        checkPermutation(a);
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int t = 1; t < cores; t *= 2) threadCounts.add(t);
+        threadCounts.add(cores);
+        for (int threads : threadCounts){
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double ms = best(repeats, () -> {
+                identity(a);
+                ParallelShuffle.shuffle(a, rng, pool);
+            }) - identityMs(a, repeats);
+            pool.shutdown();
+            checkPermutation(a);
+            print("ParallelShuffle x" + threads, ms, base);
+        }
+    }
+
+    private static double best(int repeats, Runnable r){
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < repeats; i++){
+            long t0 = System.nanoTime();
+            r.run();
+            best = Math.min(best, (System.nanoTime() - t0) / 1e6);
+        }
+        return best;
+    }
+
+    // the reset inside the timed loops is not part of the shuffle
+    private static double identityMs(int[] a, int repeats){ return best(repeats, () -> identity(a)); }
+
+    private static void identity(int[] a){ for (int i = 0; i < a.length; i++) a[i] = i; }
+
+    private static void checkPermutation(int[] a){
+        boolean[] seen = new boolean[a.length];
+        for (int x : a){
+            if (x < 0 || x >= a.length || seen[x]){
+                System.err.println("FAILED: result is not a permutation");
+                System.exit(1);
+            }
+            seen[x] = true;
+        }
+    }
+
+    private static void print(String name, double ms, double base){
+        System.out.printf("%-28s %10.1f %9.2fx%n", name, ms, base / ms);
+    }
+}
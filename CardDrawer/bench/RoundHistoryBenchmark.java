@@ -0,0 +1,110 @@
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records RoundPipeline rounds through RoundHistory's record stage, then reads the file back:
+ * size per round against the same rows as CSV, a full decode against a scan of the OUTCOME
+ * column alone, and checks that row count, wins and net match what the pipeline settled.
+ * Finally a torn group is appended and the file reopened, which must drop it and keep going.
+ *
+ *   java -cp <classes> RoundHistoryBenchmark [rounds] [tables]
+ */
+public class RoundHistoryBenchmark {
+
+    static volatile long blackhole; // keeps the full decode from being optimised away
+
+    public static void main(String[] args) throws Exception {
+        long rounds = args.length > 0 ? (long) Double.parseDouble(args[0]) : 5_000_000L;
+        int tableCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        Path dir = Files.createTempDirectory("history-bench");
+        Path file = dir.resolve("rounds.cdh");
+
+        WalletLedger ledger = new WalletLedger(dir.resolve("wallets.properties"));
+        gamePanel.Deck full = new gamePanel.Deck();
+        gamePanel.ChosenType[] types = gamePanel.ChosenType.values();
+        gamePanel.Suit[] suits = gamePanel.Suit.values();
+        List<RoundPipeline.Table> tables = new ArrayList<>();
+        for (int i = 0; i < tableCount; i++){
+            tables.add(new RoundPipeline.Table("player-" + (i % 100), full, types[i % types.length],
+                    "A", suits[i % suits.length], gamePanel.ColorType.RED, 100 * (1 + i % 10)));
+        }
+        for (int i = 0; i < 100; i++) ledger.credit("player-" + i, 1L << 50); // stakes are debited, so never run dry
+
+        long[] settled = new long[3]; // wins, net cents, csv bytes; written by the notify thread only
+        long start = System.nanoTime();
+        try (RoundHistory.Writer w = new RoundHistory.Writer(file)){
+            RoundPipeline p = new RoundPipeline(1 << 16, tables, ledger, w.recorder(), r -> {
+                long net = r.payoutCents - r.table.betCents;
+                if (r.won) settled[0]++;
+                settled[1] += net;
+                settled[2] += csvLength(r, net);
+            }, 42);
+            p.start(rounds);
+            p.awaitCompletion();
+        }
+        double writeSecs = (System.nanoTime() - start) / 1e9;
+        long bytes = Files.size(file);
+        System.out.printf("%,d rounds recorded in %.2f s (%,.0f rounds/s, pipeline included)%n", rounds, writeSecs, rounds / writeSecs);
+        System.out.printf("file %,d bytes = %.2f bytes/round; as CSV %,d bytes = %.1f bytes/round (%.0fx)%n",
+                bytes, bytes / (double) rounds, settled[2], settled[2] / (double) rounds, settled[2] / (double) bytes);
+
+        boolean ok = true;
+        for (int run = 0; run < 2; run++){ // first run is warm-up
+            long t0 = System.nanoTime();
+            long[] all = scan(file, true);
+            double fullMs = (System.nanoTime() - t0) / 1e6;
+            t0 = System.nanoTime();
+            long[] one = scan(file, false);
+            double oneMs = (System.nanoTime() - t0) / 1e6;
+            if (run == 0) continue;
+            System.out.printf("read all 7 columns %.0f ms, OUTCOME only %.0f ms%n", fullMs, oneMs);
+            ok = all[0] == rounds && one[0] == rounds && one[1] == settled[0] && one[2] == settled[1]
+                    && all[1] == settled[0] && all[2] == settled[1];
+            System.out.printf("rows %,d, wins %,d, net %,d cents: %s%n", one[0], one[1], one[2], ok ? "match the pipeline" : "MISMATCH");
+        }
+
+        // a crash mid-group leaves a torn tail; reopening must drop it and append cleanly
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.APPEND)){
+            ch.write(ByteBuffer.allocate(40).putInt(0, 10));
+        }
+        try (RoundHistory.Writer w = new RoundHistory.Writer(file)){
+            w.append(39, gamePanel.ChosenType.INDIVIDUAL, 39, 500, 4.0, 2_000, System.currentTimeMillis());
+        }
+        long[] after = scan(file, false);
+        boolean reopened = after[0] == rounds + 1 && after[2] == settled[1] + 2_000;
+        System.out.println("torn tail dropped on reopen: " + (reopened ? "ok" : "FAILED"));
+        ok &= reopened;
+
+        System.out.println(ok ? "PASS" : "FAIL");
+        System.exit(ok ? 0 : 1);
+    }
+
+    // {rows, wins, net cents}; all = decode every column, not just OUTCOME
+    private static long[] scan(Path file, boolean all) throws Exception {
+        long[] out = new long[3];
+        try (RoundHistory.Reader r = new RoundHistory.Reader(file)){
+            while (r.nextGroup()){
+                out[0] += r.rows();
+                for (long v : r.longs(RoundHistory.Column.OUTCOME)){ if (v > 0) out[1]++; out[2] += v; }
+                if (!all) continue;
+                blackhole += r.ints(RoundHistory.Column.CARD)[0] + r.ints(RoundHistory.Column.BET_TYPE)[0]
+                        + r.ints(RoundHistory.Column.TARGET)[0] + r.longs(RoundHistory.Column.AMOUNT)[0]
+                        + r.longs(RoundHistory.Column.TIMESTAMP)[0] + (long) r.doubles(RoundHistory.Column.MULTIPLIER)[0];
+            }
+        }
+        return out;
+    }
+
+    // length of the row RoundHistory's csv dump would print, without building the string
+    private static int csvLength(RoundPipeline.Round r, long net){
+        return 13 + 1 + digits(r.card.ordinal()) + 1 + r.table.type.name().length() + 1 + digits(r.table.target)
+                + 1 + digits(r.table.betCents) + 1 + Double.toString(r.multiplier).length() + 1 + digits(net) + 1;
+    }
+
+    private static int digits(long v){ return Long.toString(v).length(); }
+}
@@ -0,0 +1,46 @@
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Throughput and draw-to-notify latency of RoundPipeline with many headless tables settling
+ * into a throwaway WalletLedger.
+ *
+ *   java -cp <classes> RoundPipelineBenchmark [rounds] [tables] [ringSize]
+ */
+public class RoundPipelineBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long rounds = args.length > 0 ? (long) Double.parseDouble(args[0]) : 20_000_000L;
+        int tableCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int ringSize = args.length > 2 ? Integer.parseInt(args[2]) : 1 << 16;
+
+        WalletLedger ledger = new WalletLedger(Files.createTempDirectory("pipeline-bench").resolve("wallets.properties"));
+        gamePanel.Deck full = new gamePanel.Deck();
+        gamePanel.ChosenType[] types = gamePanel.ChosenType.values();
+        List<RoundPipeline.Table> tables = new ArrayList<>();
+        for (int i = 0; i < tableCount; i++){
+            tables.add(new RoundPipeline.Table("player-" + (i % 100), full, types[i % types.length],
+                    "A", gamePanel.Suit.SPADES, gamePanel.ColorType.RED, 1_000));
+        }
+        for (int i = 0; i < 100; i++) ledger.credit("player-" + i, 1L << 50); // stakes are debited, so never run dry
+
+        for (int run = 0; run < 2; run++){ // first run is warm-up
+            long[] wins = new long[1];
+            RoundPipeline p = new RoundPipeline(ringSize, tables, ledger, r -> { if (r.won) wins[0]++; }, null, 42);
+            long start = System.nanoTime();
+            p.start(rounds);
+            p.awaitCompletion();
+            double secs = (System.nanoTime() - start) / 1e9;
+            if (run == 0) continue;
+            RoundPipeline.LatencyHistogram h = p.latencies();
+            System.out.printf("%,d rounds, %,d tables, ring %,d: %.2f s, %,.0f rounds/s, win rate %.3f%n",
+                    p.completed(), tableCount, ringSize, secs, p.completed() / secs, wins[0] / (double) p.completed());
+            System.out.printf("draw->notify latency (bucket upper bounds): p50 <= %s  p99 <= %s  p99.9 <= %s  max <= %s%n",
+                    micros(h.percentileNanos(50)), micros(h.percentileNanos(99)), micros(h.percentileNanos(99.9)), micros(h.percentileNanos(100)));
+        }
+        System.exit(0);
+    }
+
+    private static String micros(long nanos){ return String.format("%.1f us", nanos / 1000.0); }
+}
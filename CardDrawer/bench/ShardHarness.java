@@ -0,0 +1,152 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Multi-process rebalancing test on one box: starts TableNode processes on loopback, routes
+ * sustained draw+settle load through a TableRouter, adds a node and then removes one while the
+ * load keeps running. Afterwards every table's deck must match the number of draws the clients
+ * saw for it, and the nodes together must hold each table exactly once. Exits 1 on a mismatch.
+ *
+ *   java -cp <classes> ShardHarness [tables] [clientThreads] [phaseSeconds]
+ */
+public class ShardHarness {
+
+    public static void main(String[] args) throws Exception {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int phaseSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        if (tableCount < clients) throw new IllegalArgumentException("need at least one table per client thread");
+
+        List<Process> processes = new ArrayList<>();
+        Map<Integer, Process> byPort = new HashMap<>();
+        try (TableRouter router = new TableRouter()){
+            for (int i = 0; i < 3; i++){
+                Process p = startNode();
+                int port = readyPort(p);
+                processes.add(p);
+                byPort.put(port, p);
+            }
+            List<Integer> ports = new ArrayList<>(byPort.keySet());
+            router.addNode(ports.get(0));
+            router.addNode(ports.get(1));
+
+            gamePanel.ChosenType[] types = gamePanel.ChosenType.values();
+            for (int i = 0; i < tableCount; i++){
+                gamePanel.ChosenType type = types[i % types.length];
+                router.open("t" + i, type, RoundHistory.target(type, "A", gamePanel.Suit.SPADES, gamePanel.ColorType.RED), 1000);
+            }
+            System.out.printf("%d tables on 2 nodes, %d client threads%n", tableCount, clients);
+
+            AtomicLongArray draws = new AtomicLongArray(tableCount);
+            AtomicLong rounds = new AtomicLong();
+            AtomicLong errors = new AtomicLong();
+            AtomicBoolean stop = new AtomicBoolean(false);
+            List<Thread> load = new ArrayList<>();
+            for (int c = 0; c < clients; c++){
+                final int client = c;
+                Thread t = new Thread(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    int owned = (tableCount - client + clients - 1) / clients;
+                    while (!stop.get()){
+                        // each client only plays the tables congruent to its index, so per-table counts are exact
+                        int table = client + clients * rnd.nextInt(owned);
+                        try {
+                            String id = "t" + table;
+                            router.draw(id);
+                            draws.incrementAndGet(table);
+                            router.settle(id);
+                            rounds.incrementAndGet();
+                        } catch (RuntimeException ex){
+                            errors.incrementAndGet();
+                            System.err.println("request failed: " + ex.getMessage());
+                        }
+                    }
+                }, "load-" + c);
+                t.start();
+                load.add(t);
+            }
+
+            phase("steady, 2 nodes", phaseSeconds, rounds);
+            long t0 = System.nanoTime();
+            int moved = router.addNode(ports.get(2));
+            System.out.printf("join node %d: moved %d tables in %.0f ms%n", ports.get(2), moved, (System.nanoTime() - t0) / 1e6);
+            phase("steady, 3 nodes", phaseSeconds, rounds);
+
+            t0 = System.nanoTime();
+            moved = router.removeNode(ports.get(0));
+            System.out.printf("leave node %d: moved %d tables in %.0f ms%n", ports.get(0), moved, (System.nanoTime() - t0) / 1e6);
+            phase("steady, 2 nodes", phaseSeconds, rounds);
+
+            stop.set(true);
+            for (Thread t : load) t.join();
+
+            int bad = 0;
+            for (int i = 0; i < tableCount; i++){
+                long n = draws.get(i);
+                long expectedRemaining = n == 0 ? 52 : 52 - ((n - 1) % 52 + 1);
+                long mask = Long.parseLong(router.peek("t" + i).split(",")[0]);
+                if (Long.bitCount(mask) != expectedRemaining){
+                    if (bad++ < 10) System.err.printf("table t%d: %d draws but %d cards left%n", i, n, Long.bitCount(mask));
+                }
+            }
+            int hosted = 0;
+            for (int port : router.nodePorts()) hosted += tablesOn(port);
+            boolean ok = bad == 0 && errors.get() == 0 && hosted == tableCount;
+            System.out.printf("%,d rounds, %d request errors, %d tables with wrong state, %d/%d tables hosted -> %s%n",
+                    rounds.get(), errors.get(), bad, hosted, tableCount, ok ? "PASS" : "FAIL");
+            for (int port : byPort.keySet()) shutdown(port);
+            if (!ok) System.exit(1);
+        } finally {
+            for (Process p : processes) p.destroy();
+        }
+    }
+
+    private static void phase(String name, int seconds, AtomicLong rounds) throws InterruptedException {
+        long before = rounds.get();
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("  %-16s %,10.0f rounds/s%n", name, (rounds.get() - before) / secs);
+    }
+
+    private static Process startNode() throws IOException {
+        String java = System.getProperty("java.home") + "/bin/java";
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "TableNode", "0", "200000")
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private static int readyPort(Process p) throws IOException {
+        BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8));
+        String line = r.readLine();
+        if (line == null || !line.startsWith("READY ")) throw new IOException("node did not start: " + line);
+        return Integer.parseInt(line.substring(6).trim());
+    }
+
+    private static int tablesOn(int port) throws IOException {
+        try (java.net.Socket s = new java.net.Socket(java.net.InetAddress.getLoopbackAddress(), port)){
+            s.getOutputStream().write("STATS\n".getBytes(StandardCharsets.UTF_8));
+            String reply = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8)).readLine();
+            return Integer.parseInt(reply.split(" ")[1]);
+        }
+    }
+
+    private static void shutdown(int port){
+        try (java.net.Socket s = new java.net.Socket(java.net.InetAddress.getLoopbackAddress(), port)){
+            s.getOutputStream().write("SHUTDOWN\n".getBytes(StandardCharsets.UTF_8));
+            s.getInputStream().read();
+        } catch (IOException ex){
+            // node already gone
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Heap size and GC pauses with N tables held as heap objects (a Deck per table, as the UI and
+ * RoundPipeline do) versus packed into an off-heap TableStore.
+ *
+ * For each N it reports live heap after a full GC, the full-GC pause, and young-GC count/time
+ * while playing rounds that also allocate a little per-round garbage, as request handling would.
+ *
+ *   java -Xmx2g -cp <classes> TableStoreBenchmark [rounds]
+ */
+public class TableStoreBenchmark {
+
+    public static void main(String[] args){
+        long rounds = args.length > 0 ? (long) Double.parseDouble(args[0]) : 20_000_000L;
+        System.out.printf("%-9s %-9s %12s %12s %14s %14s %10s%n",
+                "tables", "store", "live heap MB", "full GC ms", "young GCs", "young GC ms", "rounds/s");
+        for (int n : new int[]{10_000, 100_000, 1_000_000}){
+            runHeap(n, rounds);
+            runOffHeap(n, rounds);
+        }
+    }
+
+    private static void runHeap(int n, long rounds){
+        long base = liveHeap();
+        gamePanel.Deck full = new gamePanel.Deck();
+        List<RoundPipeline.Table> tables = new ArrayList<>(n);
+        gamePanel.ChosenType[] types = gamePanel.ChosenType.values();
+        for (int i = 0; i < n; i++){
+            tables.add(new RoundPipeline.Table("p" + i, full, types[i % types.length], "A", gamePanel.Suit.SPADES, gamePanel.ColorType.RED, 1000));
+        }
+        Random rng = new Random(1);
+        report(n, "heap", base, rounds, () -> {
+            long wins = 0;
+            for (long r = 0; r < rounds; r++){
+                RoundPipeline.Table t = tables.get((int) (r % n));
+                if (t.deck.size() == 0) t.deck.copyFrom(t.template);
+                gamePanel.Card c = t.deck.drawRandom(rng);
+                if (gamePanel.wins(c, t.type, t.rank, t.suit, t.colour)) wins++;
+                sink = new long[4]; // per-round garbage
+            }
+            return wins;
+        });
+        if (tables.size() != n) throw new AssertionError();
+    }
+
+    private static void runOffHeap(int n, long rounds){
+        long base = liveHeap();
+        TableStore store = new TableStore(n);
+        gamePanel.ChosenType[] types = gamePanel.ChosenType.values();
+        for (int i = 0; i < n; i++){
+            gamePanel.ChosenType type = types[i % types.length];
+            store.open(i, type, RoundHistory.target(type, "A", gamePanel.Suit.SPADES, gamePanel.ColorType.RED), 1000); // same bets as the heap run
+        }
+        SplittableRandom rng = new SplittableRandom(1);
+        report(n, "off-heap", base, rounds, () -> {
+            long wins = 0;
+            for (long r = 0; r < rounds; r++){
+                int t = (int) (r % n);
+                if (store.remaining(t) == 0) store.setDeckMask(t, TableStore.FULL_DECK);
+                if (store.wins(t, store.drawRandom(t, rng))) wins++;
+                sink = new long[4];
+            }
+            return wins;
+        });
+        if (store.capacity() != n) throw new AssertionError();
+    }
+
+    static volatile Object sink;
+
+    interface Workload { long run(); }
+
+    private static void report(int n, String kind, long baseHeap, long rounds, Workload w){
+        long live = liveHeap() - baseHeap;
+        long t0 = System.nanoTime();
+        System.gc();
+        double fullGcMs = (System.nanoTime() - t0) / 1e6;
+
+        long[] before = youngGc();
+        long start = System.nanoTime();
+        w.run();
+        double secs = (System.nanoTime() - start) / 1e9;
+        long[] after = youngGc();
+        System.out.printf("%-9d %-9s %12.1f %12.1f %14d %14d %,10.0f%n",
+                n, kind, live / 1e6, fullGcMs, after[0] - before[0], after[1] - before[1], rounds / secs);
+    }
+
+    private static long liveHeap(){
+        for (int i = 0; i < 3; i++) System.gc();
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    // {count, time ms} summed over the collectors that are not the full/old collector
+    private static long[] youngGc(){
+        long count = 0, time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()){
+            String name = gc.getName();
+            if (name.contains("Old") || name.contains("MarkSweep") || name.contains("Major")) continue;
+            count += gc.getCollectionCount();
+            time += gc.getCollectionTime();
+        }
+        return new long[]{count, time};
+    }
+}
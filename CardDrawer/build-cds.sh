@@ -0,0 +1,12 @@
+#!/bin/sh
+# Builds build/carddrawer.jar and an AppCDS archive (build/carddrawer.jsa) from a
+# training run that exits at the first frame. Launch with:
+#   java -XX:SharedArchiveFile=build/carddrawer.jsa -jar build/carddrawer.jar
+set -e
+cd "$(dirname "$0")"
+rm -rf build && mkdir -p build/classes
+javac -encoding UTF-8 -d build/classes src/*.java
+jar --create --file build/carddrawer.jar --main-class Main -C build/classes .
+java -XX:ArchiveClassesAtExit=build/carddrawer.jsa -jar build/carddrawer.jar --startup-bench
+echo "with archive:"
+java -XX:SharedArchiveFile=build/carddrawer.jsa -jar build/carddrawer.jar --startup-bench
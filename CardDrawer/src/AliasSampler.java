@@ -0,0 +1,58 @@
+import java.util.Random;
+
+/**
+ * Vose's alias method: after an O(n) build, each sample costs one uniform column pick and one
+ * biased coin flip, whatever the weights. Index i is returned with probability
+ * weights[i] / sum(weights); zero-weight indexes are never returned.
+ */
+public final class AliasSampler {
+
+    private final double[] prob;   // chance of keeping column i rather than taking alias[i]
+    private final int[] alias;
+    private final double total;
+
+    private AliasSampler(double[] prob, int[] alias, double total){
+        this.prob = prob;
+        this.alias = alias;
+        this.total = total;
+    }
+
+    static AliasSampler of(double[] weights){
+        int n = weights.length;
+        double total = 0;
+        for (double w : weights){
+            if (!(w >= 0) || Double.isInfinite(w)) throw new IllegalArgumentException("bad weight " + w);
+            total += w;
+        }
+        if (total <= 0) throw new IllegalArgumentException("all weights are zero");
+
+        double[] prob = new double[n];
+        int[] alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n], large = new int[n];
+        int ns = 0, nl = 0;
+        for (int i = 0; i < n; i++){
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) small[ns++] = i; else large[nl++] = i;
+        }
+        // pair each under-full column with an over-full one that tops it up
+        while (ns > 0 && nl > 0){
+            int s = small[--ns], l = large[--nl];
+            prob[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+            if (scaled[l] < 1.0) small[ns++] = l; else large[nl++] = l;
+        }
+        // whatever is left is full up to rounding error
+        while (nl > 0) { int l = large[--nl]; prob[l] = 1.0; alias[l] = l; }
+        while (ns > 0) { int s = small[--ns]; prob[s] = 1.0; alias[s] = s; }
+        return new AliasSampler(prob, alias, total);
+    }
+
+    int sample(Random rng){
+        int i = rng.nextInt(prob.length);
+        return rng.nextDouble() < prob[i] ? i : alias[i];
+    }
+
+    double totalWeight(){ return total; }
+}
@@ -0,0 +1,170 @@
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays one table's bet over and over on a background thread: draw, settle, repeat, at a set
+ * number of rounds per second or as fast as it can (rate 0).
+ *
+ * The thread works on its own copy of the deck and refills it from the starting deck when it
+ * runs out. Each round settles through the WalletLedger and jackpot exactly as a played round
+ * does (stake debited first, winnings credited) and is appended to the round history. The run
+ * stops itself once the debit is refused. Progress is published as an immutable Stats
+ * snapshot every few milliseconds at most; the UI polls latest() once per frame, so the
+ * engine never waits for the EDT and the EDT never sees more than one update per frame.
+ */
+public class AutoPlay {
+
+    private static final long PUBLISH_NANOS = 5_000_000;    // newest snapshot at most this stale
+    private static final long RATE_WINDOW_NANOS = 500_000_000;
+
+    /** What the UI shows; replaced, never mutated. */
+    static final class Stats {
+        final long rounds;
+        final long wins;
+        final long netCents;       // change to the player's balance since auto-play started
+        final double roundsPerSecond;
+        final gamePanel.Card lastCard;
+        final int remaining;       // cards left in the auto-play deck
+        final long balanceCents;
+        final boolean outOfFunds;  // the run stopped itself: the balance can't cover the stake
+
+        Stats(long rounds, long wins, long netCents, double roundsPerSecond, gamePanel.Card lastCard, int remaining,
+              long balanceCents, boolean outOfFunds){
+            this.rounds = rounds; this.wins = wins; this.netCents = netCents; this.roundsPerSecond = roundsPerSecond;
+            this.lastCard = lastCard; this.remaining = remaining; this.balanceCents = balanceCents; this.outOfFunds = outOfFunds;
+        }
+    }
+
+    private final gamePanel.Deck template = new gamePanel.Deck();
+    private final gamePanel.Deck deck = new gamePanel.Deck();
+    private final String player;
+    private final gamePanel.ChosenType type;
+    private final String rank;
+    private final gamePanel.Suit suit;
+    private final gamePanel.ColorType colour;
+    private final int target;
+    private final long stakeCents;
+    private final WalletLedger ledger;
+    private final JackpotPool jackpot;
+    private final RoundHistory.Writer history;   // may be null
+    private final Random rng = new Random();
+    private final AtomicReference<Stats> latest;
+    private final Thread thread;
+    private volatile int rate;                   // rounds per second, 0 = unthrottled
+    private volatile boolean running = true;
+
+    /** Starts at once. The deck is copied; the caller keeps its own. */
+    AutoPlay(gamePanel.Deck start, String player, gamePanel.ChosenType type, String rank, gamePanel.Suit suit,
+             gamePanel.ColorType colour, long stakeCents, int rate, WalletLedger ledger, JackpotPool jackpot,
+             RoundHistory.Writer history){
+        if (start.size() == 0) throw new IllegalArgumentException("deck is empty");
+        template.copyFrom(start);
+        deck.copyFrom(start);
+        this.player = player;
+        this.type = type;
+        this.rank = rank;
+        this.suit = suit;
+        this.colour = colour;
+        this.target = RoundHistory.target(type, rank, suit, colour);
+        this.stakeCents = stakeCents;
+        this.ledger = ledger;
+        this.jackpot = jackpot;
+        this.history = history;
+        setRate(rate);
+        latest = new AtomicReference<>(new Stats(0, 0, 0, 0, null, deck.size(), ledger.balance(player), false));
+        thread = new Thread(this::run, "auto-play");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void setRate(int roundsPerSecond){
+        if (roundsPerSecond < 0) throw new IllegalArgumentException("rate must be >= 0");
+        rate = roundsPerSecond;
+    }
+
+    Stats latest(){ return latest.get(); }
+
+    // Stops after the round in progress; afterwards deck() and latest() are final.
+    void stop(){
+        running = false;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()){
+            try {
+                thread.join();
+            } catch (InterruptedException ex){
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    // The auto-play deck as it was left; only read after stop().
+    gamePanel.Deck deck(){ return deck; }
+
+    private void run(){
+        long rounds = 0, wins = 0, net = 0;
+        gamePanel.Card last = null;
+        long now = System.nanoTime();
+        long lastPublish = now, windowStart = now, windowRounds = 0;
+        double perSecond = 0;
+        int pacedRate = -1;
+        long nextAt = now;
+        boolean historyFailed = false, outOfFunds = false;
+        while (running){
+            int r = rate;
+            if (r > 0){
+                if (r != pacedRate){ pacedRate = r; nextAt = System.nanoTime(); }
+                long wait = nextAt - System.nanoTime();
+                if (wait > 0){
+                    LockSupport.parkNanos(this, wait);
+                    continue; // re-check running and rate after waking
+                }
+                nextAt += 1_000_000_000L / r;
+            } else {
+                pacedRate = 0;
+            }
+
+            if (!ledger.debit(player, stakeCents)){
+                outOfFunds = true;
+                break;
+            }
+            if (deck.size() == 0) deck.copyFrom(template);
+            long jackpotEpoch = jackpot.epoch();
+            gamePanel.Card card = deck.drawRandom(rng);
+            PayoutConfig payouts = PayoutConfig.current();
+            boolean won = gamePanel.wins(card, type, rank, suit, colour);
+            double multiplier = payouts.forType(type);
+            jackpot.contribute(JackpotPool.contributionFor(stakeCents, payouts));
+            long jackpotCents = JackpotPool.isHit(type, won, card, payouts) ? jackpot.award(jackpotEpoch) : 0;
+            long roundNet = won ? Math.round(stakeCents * multiplier) + jackpotCents : -stakeCents;
+            if (won) ledger.credit(player, stakeCents + roundNet); // the stake was debited above
+            if (history != null && !historyFailed){
+                try {
+                    history.append(card.ordinal(), type, target, stakeCents, multiplier, roundNet, System.currentTimeMillis());
+                } catch (IOException ex){
+                    historyFailed = true;
+                    ex.printStackTrace();
+                }
+            }
+            rounds++;
+            if (won) wins++;
+            net += roundNet;
+            last = card;
+
+            now = System.nanoTime();
+            if (now - windowStart >= RATE_WINDOW_NANOS){
+                perSecond = (rounds - windowRounds) * 1e9 / (now - windowStart);
+                windowStart = now;
+                windowRounds = rounds;
+            }
+            if (now - lastPublish >= PUBLISH_NANOS){
+                lastPublish = now;
+                latest.set(new Stats(rounds, wins, net, perSecond, last, deck.size(), ledger.balance(player), false));
+            }
+        }
+        latest.set(new Stats(rounds, wins, net, perSecond, last, deck.size(), ledger.balance(player), outOfFunds));
+    }
+}
@@ -0,0 +1,176 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Deck filter expressions such as "remove red &amp; rank&lt;=5" or "keep faces | spades".
+ *
+ * An expression is compiled once into a 54-bit mask of the card ordinals to keep
+ * (suit * 13 + rank index, suits in HEARTS, DIAMONDS, CLUBS, SPADES order, A low,
+ * then the red and black jokers), so applying it is a single pass over the deck.
+ * Jokers count as red or black but have no suit or rank. Compiled filters are cached by source text.
+ *
+ * Grammar:
+ *   filter := ("remove" | "keep") expr
+ *   expr   := term (("|" | "or") term)*
+ *   term   := unary (("&amp;" | "and") unary)*
+ *   unary  := ("!" | "not") unary | "(" expr ")" | atom
+ *   atom   := red | black | hearts | diamonds | clubs | spades | faces | jokers | all
+ *           | rank (&lt; | &lt;= | &gt; | &gt;= | = | !=) (A | 2..10 | J | Q | K)
+ */
+public class DeckFilter {
+
+    static final long ALL = (1L << 54) - 1;
+    private static final long RED_JOKER = 1L << 52, BLACK_JOKER = 1L << 53;
+    private static final String[] RANK_NAMES = {"a","2","3","4","5","6","7","8","9","10","j","q","k"};
+    private static final String[] SUIT_NAMES = {"hearts","diamonds","clubs","spades"};
+
+    private static final int CACHE_SIZE = 256;
+    private static final Map<String, DeckFilter> CACHE = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<String, DeckFilter> e){ return size() > CACHE_SIZE; }
+    };
+
+    final String source;
+    final long keepMask;
+
+    private DeckFilter(String source, long keepMask){
+        this.source = source;
+        this.keepMask = keepMask;
+    }
+
+    boolean keeps(int ordinal){ return (keepMask & (1L << ordinal)) != 0; }
+
+    // Returns the cached compiled filter for this text; throws IllegalArgumentException on bad input.
+    static DeckFilter compile(String text){
+        String key = text.trim().toLowerCase(Locale.ROOT);
+        if (key.isEmpty()) throw new IllegalArgumentException("empty filter: expected 'keep' or 'remove'");
+        synchronized (CACHE) {
+            DeckFilter f = CACHE.get(key);
+            if (f != null) return f;
+        }
+        DeckFilter f = new DeckFilter(key, new Parser(key).parseFilter());
+        synchronized (CACHE) { CACHE.put(key, f); }
+        return f;
+    }
+
+    @Override public String toString(){ return source; }
+
+    /* ---------------------- Parser ---------------------- */
+    private static class Parser {
+        private final List<String> tokens = new ArrayList<>();
+        private final List<Integer> positions = new ArrayList<>();
+        private int pos = 0;
+
+        Parser(String src){
+            int i = 0;
+            while (i < src.length()){
+                char ch = src.charAt(i);
+                if (Character.isWhitespace(ch)) { i++; continue; }
+                int start = i;
+                if (Character.isLetterOrDigit(ch)){
+                    while (i < src.length() && Character.isLetterOrDigit(src.charAt(i))) i++;
+                } else if ((ch == '<' || ch == '>' || ch == '!' || ch == '=') && i + 1 < src.length() && src.charAt(i + 1) == '='){
+                    i += 2;
+                } else {
+                    i++;
+                }
+                tokens.add(src.substring(start, i));
+                positions.add(start);
+            }
+        }
+
+        long parseFilter(){
+            String verb = next();
+            boolean keep;
+            if ("keep".equals(verb)) keep = true;
+            else if ("remove".equals(verb)) keep = false;
+            else throw error("expected 'keep' or 'remove'", pos - 1);
+            long match = parseExpr();
+            if (pos < tokens.size()) throw error("unexpected '" + tokens.get(pos) + "'", pos);
+            return keep ? match : ALL & ~match;
+        }
+
+        private long parseExpr(){
+            long m = parseTerm();
+            while (accept("|") || accept("or")) m |= parseTerm();
+            return m;
+        }
+
+        private long parseTerm(){
+            long m = parseUnary();
+            while (accept("&") || accept("and")) m &= parseUnary();
+            return m;
+        }
+
+        private long parseUnary(){
+            if (accept("!") || accept("not")) return ALL & ~parseUnary();
+            if (accept("(")){
+                long m = parseExpr();
+                if (!accept(")")) throw error("expected ')'", pos);
+                return m;
+            }
+            return parseAtom();
+        }
+
+        private long parseAtom(){
+            int at = pos;
+            String t = next();
+            switch (t){
+                case "all": return ALL;
+                case "red": return suitMask(0) | suitMask(1) | RED_JOKER;
+                case "black": return suitMask(2) | suitMask(3) | BLACK_JOKER;
+                case "face": case "faces": return rankRange(10, 12);
+                case "joker": case "jokers": return RED_JOKER | BLACK_JOKER;
+                case "rank": return parseRankComparison();
+                default:
+                    for (int s = 0; s < SUIT_NAMES.length; s++){
+                        if (t.equals(SUIT_NAMES[s]) || t.equals(SUIT_NAMES[s].substring(0, SUIT_NAMES[s].length() - 1))) return suitMask(s);
+                    }
+                    throw error(t.isEmpty() ? "unexpected end of filter" : "unknown term '" + t + "'", at);
+            }
+        }
+
+        private long parseRankComparison(){
+            int at = pos;
+            String op = next();
+            int r = rankIndex(next(), pos - 1);
+            switch (op){
+                case "<":  return r == 0 ? 0L : rankRange(0, r - 1);
+                case "<=": return rankRange(0, r);
+                case ">":  return r == 12 ? 0L : rankRange(r + 1, 12);
+                case ">=": return rankRange(r, 12);
+                case "=": case "==": return rankRange(r, r);
+                case "!=": return rankRange(0, 12) & ~rankRange(r, r);
+                default: throw error("expected a comparison after 'rank'", at);
+            }
+        }
+
+        private int rankIndex(String t, int at){
+            for (int i = 0; i < RANK_NAMES.length; i++) if (RANK_NAMES[i].equals(t)) return i;
+            if ("1".equals(t)) return 0;
+            throw t.isEmpty() ? error("expected a rank", tokens.size()) : error("unknown rank '" + t + "'", at);
+        }
+
+        private String next(){ return pos < tokens.size() ? tokens.get(pos++) : ""; }
+
+        private boolean accept(String t){
+            if (pos < tokens.size() && tokens.get(pos).equals(t)) { pos++; return true; }
+            return false;
+        }
+
+        private IllegalArgumentException error(String msg, int tokenIndex){
+            String where = tokenIndex >= 0 && tokenIndex < positions.size() ? " at position " + (positions.get(tokenIndex) + 1) : " at end";
+            return new IllegalArgumentException(msg + where);
+        }
+    }
+
+    private static long suitMask(int suit){ return 0x1FFFL << (suit * 13); }
+
+    private static long rankRange(int lo, int hi){
+        long m = 0L;
+        for (int s = 0; s < 4; s++) for (int r = lo; r <= hi; r++) m |= 1L << (s * 13 + r);
+        return m;
+    }
+}
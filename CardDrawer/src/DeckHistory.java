@@ -0,0 +1,250 @@
+
+/**
+ * Undo/redo history of deck states. Card identity is an ordinal (suit * 13 + rank index,
+ * jokers 52 and 53).
+ * A Version is immutable: a bit mask of the ordinals present plus an order array. Versions
+ * that only remove cards share their parent's order array and just clear bits; a fresh array
+ * is made only when cards are appended. Only the current Version is kept as an object.
+ *
+ * Each step is stored as a reversible delta on a byte tape, not as a Version: an edit either
+ * removes cards and appends others at the end (every Deck tab edit on an unshuffled deck), or,
+ * rarely, reorders and is stored as both orders. Cards are coded as runs of consecutive
+ * ordinals, so removing or adding a suit, a colour or one card is one run of 3 bytes, faces
+ * four runs; with 2 bytes of framing a typical step is 5 to 14 bytes. DeckHistoryBenchmark's
+ * random mix, resets included, averages about 18 bytes a step: about 70 KB for the full
+ * 4096 steps, in a tape that doubles as it grows and so allocates up to 128 KB.
+ */
+public class DeckHistory {
+
+    private static final int MAX_STEPS = 4096;
+    private static final int MAX_RECORD = 255; // framed by one length byte at each end
+
+    static final class Version {
+        final long mask;
+        final byte[] order; // may be shared and may hold ordinals not in mask; those are skipped
+        final int size;
+
+        private Version(long mask, byte[] order){
+            this.mask = mask;
+            this.order = order;
+            this.size = Long.bitCount(mask);
+        }
+
+        // Builds the version for the given deck order, sharing prev's order array when possible.
+        static Version of(Version prev, int[] ordinals){
+            long mask = 0L;
+            for (int o : ordinals) mask |= 1L << o;
+            if (prev != null && prev.filteredEquals(mask, ordinals)) {
+                return prev.mask == mask ? prev : new Version(mask, prev.order);
+            }
+            byte[] order = new byte[ordinals.length];
+            for (int i = 0; i < ordinals.length; i++) order[i] = (byte) ordinals[i];
+            return new Version(mask, order);
+        }
+
+        boolean contains(int ordinal){ return (mask & (1L << ordinal)) != 0; }
+
+        int[] ordinals(){ return filtered(mask); }
+
+        // this version's order restricted to the cards in keep
+        int[] filtered(long keep){
+            int[] out = new int[Long.bitCount(mask & keep)];
+            int n = 0;
+            for (byte b : order) if ((mask & keep & (1L << b)) != 0) out[n++] = b;
+            return out;
+        }
+
+        private boolean filteredEquals(long keep, int[] ordinals){
+            if ((keep & ~mask) != 0) return false;
+            int n = 0;
+            for (byte b : order){
+                if ((keep & (1L << b)) == 0) continue;
+                if (n >= ordinals.length || ordinals[n] != b) return false;
+                n++;
+            }
+            return n == ordinals.length;
+        }
+    }
+
+    private final Tape undo = new Tape();
+    private final Tape redo = new Tape();
+    private final byte[] scratch = new byte[2 * MAX_RECORD]; // room for an APPEND record too long to keep
+
+    // Call with the states before and after an edit.
+    void record(Version before, Version after){
+        if (undo.steps == MAX_STEPS) undo.dropOldest();
+        undo.push(scratch, encode(before.ordinals(), after.ordinals()));
+        redo.clear();
+    }
+
+    boolean canUndo(){ return undo.steps > 0; }
+    boolean canRedo(){ return redo.steps > 0; }
+
+    Version undo(Version current){
+        int len = undo.pop(scratch);
+        redo.push(scratch, len);
+        return Version.of(current, backward(scratch, current.ordinals()));
+    }
+
+    Version redo(Version current){
+        int len = redo.pop(scratch);
+        undo.push(scratch, len);
+        return Version.of(current, forward(scratch, current.ordinals()));
+    }
+
+    void clear(){
+        undo.clear();
+        redo.clear();
+    }
+
+    // Bytes allocated for both tapes, and the bytes of them holding steps.
+    int footprint(){ return undo.buf.length + redo.buf.length; }
+    int stepBytes(){ return undo.size + redo.size; }
+
+    /* ---------------------- Step encoding ---------------------- */
+
+    //   APPEND:  0, removed run count, (position in before, first ordinal, length)*,
+    //               appended run count, (first ordinal, length)*
+    //   REORDER: 1, before size, before ordinals, after size, after ordinals
+    private static final byte APPEND = 0, REORDER = 1;
+
+    private int encode(int[] before, int[] after){
+        long keep = 0;
+        for (int o : after) keep |= 1L << o;
+        long had = 0;
+        for (int o : before) had |= 1L << o;
+        int kept = Long.bitCount(keep & had);
+        boolean append = true;
+        for (int i = 0, k = 0; i < before.length && append; i++){
+            if ((keep & (1L << before[i])) != 0 && after[k++] != before[i]) append = false;
+        }
+        if (append){
+            int n = 0;
+            scratch[n++] = APPEND;
+            int countAt = n++, runs = 0;
+            for (int i = 0; i < before.length; ){
+                if ((keep & (1L << before[i])) != 0){ i++; continue; }
+                int start = i++;
+                while (i < before.length && before[i] == before[i - 1] + 1 && (keep & (1L << before[i])) == 0) i++;
+                scratch[n++] = (byte) start; scratch[n++] = (byte) before[start]; scratch[n++] = (byte) (i - start);
+                runs++;
+            }
+            scratch[countAt] = (byte) runs;
+            countAt = n++;
+            runs = 0;
+            for (int i = kept; i < after.length; ){
+                int start = i++;
+                while (i < after.length && after[i] == after[i - 1] + 1) i++;
+                scratch[n++] = (byte) after[start]; scratch[n++] = (byte) (i - start);
+                runs++;
+            }
+            scratch[countAt] = (byte) runs;
+            if (n <= MAX_RECORD) return n; // else scattered runs; both orders are shorter
+        }
+        int n = 0;
+        scratch[n++] = REORDER;
+        scratch[n++] = (byte) before.length;
+        for (int o : before) scratch[n++] = (byte) o;
+        scratch[n++] = (byte) after.length;
+        for (int o : after) scratch[n++] = (byte) o;
+        return n;
+    }
+
+    // the state before the step, given the state after it
+    private static int[] backward(byte[] r, int[] after){
+        if (r[0] == REORDER) return bytes(r, 2, r[1]);
+        int removedRuns = r[1], p = 2;
+        int appendAt = p + removedRuns * 3;
+        int appended = 0;
+        for (int i = 0, q = appendAt + 1; i < r[appendAt]; i++, q += 2) appended += r[q + 1];
+        int keptCount = after.length - appended, removed = 0;
+        for (int i = 0; i < removedRuns; i++) removed += r[p + i * 3 + 2];
+        int[] out = new int[keptCount + removed];
+        int n = 0, k = 0;
+        for (int i = 0; i < removedRuns; i++, p += 3){
+            int pos = r[p], first = r[p + 1], runLen = r[p + 2];
+            while (n < pos) out[n++] = after[k++];
+            for (int j = 0; j < runLen; j++) out[n++] = first + j;
+        }
+        while (k < keptCount) out[n++] = after[k++];
+        return out;
+    }
+
+    // the state after the step, given the state before it
+    private static int[] forward(byte[] r, int[] before){
+        if (r[0] == REORDER){
+            int at = 2 + r[1];
+            return bytes(r, at + 1, r[at]);
+        }
+        long gone = 0;
+        int p = 2;
+        for (int i = 0; i < r[1]; i++, p += 3){
+            for (int j = 0; j < r[p + 2]; j++) gone |= 1L << (r[p + 1] + j);
+        }
+        int appendRuns = r[p++], appended = 0;
+        for (int i = 0; i < appendRuns; i++) appended += r[p + i * 2 + 1];
+        int[] out = new int[before.length - Long.bitCount(gone) + appended];
+        int n = 0;
+        for (int o : before) if ((gone & (1L << o)) == 0) out[n++] = o;
+        for (int i = 0; i < appendRuns; i++, p += 2){
+            for (int j = 0; j < r[p + 1]; j++) out[n++] = r[p] + j;
+        }
+        return out;
+    }
+
+    private static int[] bytes(byte[] r, int from, int count){
+        int[] out = new int[count];
+        for (int i = 0; i < count; i++) out[i] = r[from + i];
+        return out;
+    }
+
+    /* ---------------------- Tape ---------------------- */
+
+    // Stack of byte records in a growable ring: [len] payload [len], so the newest can be
+    // popped and the oldest dropped without an index.
+    private static final class Tape {
+        byte[] buf = new byte[64];
+        private int head;
+        int size; // live bytes are buf[head .. head + size), wrapping
+        int steps;
+
+        void push(byte[] payload, int len){
+            while (size + len + 2 > buf.length) grow();
+            put(size, (byte) len);
+            for (int i = 0; i < len; i++) put(size + 1 + i, payload[i]);
+            put(size + 1 + len, (byte) len);
+            size += len + 2;
+            steps++;
+        }
+
+        int pop(byte[] into){
+            int len = get(size - 1) & 0xFF;
+            for (int i = 0; i < len; i++) into[i] = get(size - 1 - len + i);
+            size -= len + 2;
+            steps--;
+            return len;
+        }
+
+        void dropOldest(){
+            int len = get(0) & 0xFF;
+            head = (head + len + 2) % buf.length;
+            size -= len + 2;
+            steps--;
+        }
+
+        void clear(){
+            head = size = steps = 0;
+            if (buf.length > 4096) buf = new byte[64]; // don't hold on to a long-gone history
+        }
+
+        private byte get(int i){ return buf[(head + i) % buf.length]; }
+        private void put(int i, byte b){ buf[(head + i) % buf.length] = b; }
+
+        private void grow(){
+            byte[] bigger = new byte[buf.length * 2];
+            for (int i = 0; i < size; i++) bigger[i] = get(i);
+            buf = bigger;
+            head = 0;
+        }
+    }
+}
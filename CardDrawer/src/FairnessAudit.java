@@ -0,0 +1,281 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Statistical audit of Deck.shuffle and Deck.drawRandom, run on all cores.
+ *
+ * Every trial starts from the deck in its canonical order. Shuffle trials shuffle it once;
+ * draw trials draw it empty with drawRandom. Results go straight into fixed-size per-worker
+ * accumulators that are merged at the end, so no raw draws are kept.
+ *
+ *   position x card chi-square   shuffle result and draw order, (n-1)^2 degrees of freedom
+ *   serial correlation           consecutive draws, against -1/(n-1) (sampling without replacement)
+ *   runs test                    runs of low/high cards in each draw sequence (Wald-Wolfowitz)
+ *
+ * It then audits ParallelShuffle's scatter algorithm at tiny sizes with several buckets and
+ * chunks: position x value chi-square on 52 elements, and the frequency of all 120
+ * permutations of 5.
+ *
+ *   java -cp <classes> FairnessAudit [--draws N] [--decks full,no-faces,no-hearts] [--threads T] [--seed S]
+ *
+ * Deck variants: "full", "no-faces", "no-hearts" (any suit), combined with '+', e.g. "no-clubs+no-faces".
+ */
+public class FairnessAudit {
+
+    public static void main(String[] args) throws Exception {
+        long draws = 10_000_000L;
+        String decks = "full,no-faces,no-hearts";
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        for (int i = 0; i < args.length; i++){
+            switch (args[i]){
+                case "--draws": draws = (long) Double.parseDouble(args[++i]); break;
+                case "--decks": decks = args[++i]; break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        System.out.printf("Fairness audit: %,d draws and shuffled cards per deck, %d threads, seed %d%n", draws, threads, seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        boolean allPass = true;
+        try {
+            for (String variant : decks.split(",")){
+                gamePanel.Deck template = buildDeck(variant.trim());
+                allPass &= audit(variant.trim(), template, draws, threads, seed, pool);
+            }
+            allPass &= auditScatterShuffle(draws, threads, seed, pool);
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println(allPass ? "RESULT: no test rejected at the 0.001 level" : "RESULT: at least one test rejected at the 0.001 level");
+        System.exit(allPass ? 0 : 1);
+    }
+
+    static gamePanel.Deck buildDeck(String variant){
+        gamePanel.Deck d = new gamePanel.Deck();
+        for (String part : variant.toLowerCase().split("\\+")){
+            if (part.equals("full")) continue;
+            if (part.equals("no-faces")) { d.removeFaces(); continue; }
+            if (part.startsWith("no-")){
+                d.removeSuit(gamePanel.Suit.valueOf(part.substring(3).toUpperCase()));
+                continue;
+            }
+            throw new IllegalArgumentException("Unknown deck variant: " + part);
+        }
+        if (d.size() < 2) throw new IllegalArgumentException("Deck variant " + variant + " leaves fewer than 2 cards");
+        return d;
+    }
+
+    private static boolean audit(String variant, gamePanel.Deck template, long draws, int threads, long seed, ExecutorService pool) throws Exception {
+        int n = template.size();
+        long trials = Math.max(1, draws / n);
+        int[] indexOf = new int[64];
+        List<gamePanel.Card> cards = template.asList();
+        for (int i = 0; i < n; i++) indexOf[cards.get(i).ordinal()] = i;
+
+        long start = System.nanoTime();
+        List<Future<Accumulator>> parts = new ArrayList<>();
+        for (int w = 0; w < threads; w++){
+            long share = trials / threads + (w < trials % threads ? 1 : 0);
+            long workerSeed = seed + 0x9E3779B97F4A7C15L * (w + 1);
+            parts.add(pool.submit(() -> run(template, indexOf, share, new Random(workerSeed))));
+        }
+        Accumulator total = new Accumulator(n);
+        for (Future<Accumulator> f : parts) total.merge(f.get());
+        double secs = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%n== deck '%s' (%d cards): %,d shuffles + %,d full draw-downs in %.1f s (%,.0f draws/s)%n",
+                variant, n, total.trials, total.trials, secs, total.trials * (double) n / secs);
+        boolean pass = true;
+        pass &= reportChiSquare("shuffle position x card", total.shufflePos, n, total.trials);
+        pass &= reportChiSquare("draw order x card", total.drawPos, n, total.trials);
+        pass &= reportSerial(total, n);
+        pass &= reportRuns(total, n);
+        return pass;
+    }
+
+    private static Accumulator run(gamePanel.Deck template, int[] indexOf, long trials, Random rng){
+        int n = template.size();
+        Accumulator acc = new Accumulator(n);
+        gamePanel.Deck deck = new gamePanel.Deck();
+        int half = n / 2;
+        for (long t = 0; t < trials; t++){
+            deck.copyFrom(template);
+            deck.shuffle(rng);
+            List<gamePanel.Card> order = deck.asList();
+            for (int p = 0; p < n; p++) acc.shufflePos[p * n + indexOf[order.get(p).ordinal()]]++;
+
+            deck.copyFrom(template);
+            int prev = -1;
+            boolean prevLow = false;
+            long runs = 0;
+            for (int p = 0; p < n; p++){
+                int x = indexOf[deck.drawRandom(rng).ordinal()];
+                acc.drawPos[p * n + x]++;
+                if (prev >= 0){
+                    acc.sumX += prev; acc.sumY += x;
+                    acc.sumXX += (long) prev * prev; acc.sumYY += (long) x * x;
+                    acc.sumXY += (long) prev * x;
+                    acc.pairs++;
+                }
+                boolean low = x < half;
+                if (p == 0 || low != prevLow) runs++;
+                prevLow = low;
+                prev = x;
+            }
+            acc.runs += runs;
+            acc.trials++;
+        }
+        return acc;
+    }
+
+    private static boolean auditScatterShuffle(long draws, int threads, long seed, ExecutorService pool) throws Exception {
+        final int n = 52, small = 5, smallPerms = 120;
+        long trials = Math.max(1, draws / n);
+        long start = System.nanoTime();
+        List<Future<long[][]>> parts = new ArrayList<>();
+        for (int w = 0; w < threads; w++){
+            long share = trials / threads + (w < trials % threads ? 1 : 0);
+            long workerSeed = seed ^ 0x5DEECE66DL * (w + 1);
+            parts.add(pool.submit(() -> {
+                SplittableRandom rng = new SplittableRandom(workerSeed);
+                long[] pos = new long[n * n], perms = new long[smallPerms];
+                int[] a = new int[n], b = new int[small];
+                for (long t = 0; t < share; t++){
+                    for (int i = 0; i < n; i++) a[i] = i;
+                    ParallelShuffle.scatterShuffle(a, rng, null, 3, 5);
+                    for (int p = 0; p < n; p++) pos[p * n + a[p]]++;
+                    for (int i = 0; i < small; i++) b[i] = i;
+                    ParallelShuffle.scatterShuffle(b, rng, null, 2, 2);
+                    perms[permutationIndex(b)]++;
+                }
+                return new long[][]{ pos, perms };
+            }));
+        }
+        long[] pos = new long[n * n], perms = new long[smallPerms];
+        for (Future<long[][]> f : parts){
+            long[][] r = f.get();
+            for (int i = 0; i < pos.length; i++) pos[i] += r[0][i];
+            for (int i = 0; i < perms.length; i++) perms[i] += r[1][i];
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%n== ParallelShuffle scatter path: %,d shuffles of %d and of %d in %.1f s%n", trials, n, small, secs);
+        boolean pass = reportChiSquare("position x value", pos, n, trials);
+        pass &= reportPermutations(perms, trials);
+        return pass;
+    }
+
+    // rank of the permutation in lexicographic order (Lehmer code)
+    private static int permutationIndex(int[] p){
+        int index = 0;
+        for (int i = 0; i < p.length; i++){
+            int smaller = 0;
+            for (int j = i + 1; j < p.length; j++) if (p[j] < p[i]) smaller++;
+            index = index * (p.length - i) + smaller;
+        }
+        return index;
+    }
+
+    private static boolean reportPermutations(long[] counts, long trials){
+        double expected = trials / (double) counts.length;
+        double chi2 = 0;
+        for (long c : counts){
+            double d = c - expected;
+            chi2 += d * d / expected;
+        }
+        int df = counts.length - 1;
+        double p = chiSquareUpperTail(chi2, df);
+        System.out.printf("  %-26s chi2 = %.1f (df %d), p = %.4f  %s%n", "permutations of 5", chi2, df, p, verdict(p));
+        return p >= ALPHA;
+    }
+
+    // Fixed-size tallies; one per worker, merged at the end.
+    private static class Accumulator {
+        final long[] shufflePos, drawPos;
+        long trials, pairs, sumX, sumY, sumXX, sumYY, sumXY, runs;
+
+        Accumulator(int n){
+            shufflePos = new long[n * n];
+            drawPos = new long[n * n];
+        }
+
+        void merge(Accumulator o){
+            for (int i = 0; i < shufflePos.length; i++){ shufflePos[i] += o.shufflePos[i]; drawPos[i] += o.drawPos[i]; }
+            trials += o.trials; pairs += o.pairs; runs += o.runs;
+            sumX += o.sumX; sumY += o.sumY; sumXX += o.sumXX; sumYY += o.sumYY; sumXY += o.sumXY;
+        }
+    }
+
+    /* ---------------------- Tests ---------------------- */
+    static final double ALPHA = 0.001;
+
+    static boolean reportChiSquare(String name, long[] counts, int n, long trials){
+        double expected = trials / (double) n;
+        double chi2 = 0, maxResidual = 0;
+        for (long c : counts){
+            double d = c - expected;
+            chi2 += d * d / expected;
+            maxResidual = Math.max(maxResidual, Math.abs(d) / Math.sqrt(expected));
+        }
+        int df = (n - 1) * (n - 1);
+        double p = chiSquareUpperTail(chi2, df);
+        System.out.printf("  %-26s chi2 = %.1f (df %d), p = %.4f, max |residual| = %.2f  %s%n",
+                name, chi2, df, p, maxResidual, verdict(p));
+        return p >= ALPHA;
+    }
+
+    private static boolean reportSerial(Accumulator a, int n){
+        double m = a.pairs;
+        double cov = a.sumXY / m - (a.sumX / m) * (a.sumY / m);
+        double vx = a.sumXX / m - (a.sumX / m) * (a.sumX / m);
+        double vy = a.sumYY / m - (a.sumY / m) * (a.sumY / m);
+        double r = cov / Math.sqrt(vx * vy);
+        double expected = -1.0 / (n - 1);
+        double z = (r - expected) * Math.sqrt(m);
+        double p = 2 * normalUpperTail(Math.abs(z));
+        System.out.printf("  %-26s r = %.6f (expected %.6f), z = %.2f, p = %.4f  %s%n",
+                "serial correlation", r, expected, z, p, verdict(p));
+        return p >= ALPHA;
+    }
+
+    private static boolean reportRuns(Accumulator a, int n){
+        double n1 = n / 2, n2 = n - n / 2;
+        double mean = 1 + 2 * n1 * n2 / n;
+        double var = 2 * n1 * n2 * (2 * n1 * n2 - n) / ((double) n * n * (n - 1));
+        double z = (a.runs - a.trials * mean) / Math.sqrt(a.trials * var);
+        double p = 2 * normalUpperTail(Math.abs(z));
+        System.out.printf("  %-26s mean runs = %.4f (expected %.4f), z = %.2f, p = %.4f  %s%n",
+                "runs (low/high)", a.runs / (double) a.trials, mean, z, p, verdict(p));
+        return p >= ALPHA;
+    }
+
+    private static String verdict(double p){ return p < ALPHA ? "REJECT" : "ok"; }
+
+    // Wilson-Hilferty: (chi2/df)^(1/3) is close to normal for the large df used here.
+    static double chiSquareUpperTail(double chi2, int df){
+        double k = df;
+        double z = (Math.cbrt(chi2 / k) - (1 - 2 / (9 * k))) / Math.sqrt(2 / (9 * k));
+        return normalUpperTail(z);
+    }
+
+    static double normalUpperTail(double z){ return 0.5 * erfc(z / Math.sqrt(2)); }
+
+    // Numerical Recipes erfc (Chebyshev fit), relative error below 1.2e-7
+    private static double erfc(double x){
+        double z = Math.abs(x);
+        double t = 1 / (1 + 0.5 * z);
+        double r = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? r : 2 - r;
+    }
+}
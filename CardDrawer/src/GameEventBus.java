@@ -0,0 +1,252 @@
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Publisher of game events (card drawn, deck mutated, bet placed, round settled) to any number
+ * of Flow subscribers, each delivered on its own executor and paced by its own request(n).
+ *
+ * publish() never waits for a subscriber. Each subscription keeps only the latest undelivered
+ * event of every kind, so a subscriber that keeps up sees every event while a slow one sees
+ * conflated updates: the newest state per kind, with Event.count telling it how many of that
+ * kind have happened in total. Events of different kinds are delivered in publish order.
+ *
+ * SubmissionPublisher was not used because a full buffer there either blocks the publisher or
+ * drops the newest item, and we want the opposite: drop the stale ones.
+ */
+public class GameEventBus implements Flow.Publisher<GameEventBus.Event> {
+
+    enum Kind { CARD_DRAWN, DECK_MUTATED, BET_PLACED, ROUND_SETTLED }
+
+    /** Base of all events; seq is global publish order, count is the n-th event of this kind. */
+    abstract static class Event {
+        long seq;
+        long count;
+        abstract Kind kind();
+    }
+
+    static final class CardDrawn extends Event {
+        final gamePanel.Card card;
+        final int remaining;
+        CardDrawn(gamePanel.Card card, int remaining){ this.card = card; this.remaining = remaining; }
+        @Override Kind kind(){ return Kind.CARD_DRAWN; }
+        @Override public String toString(){ return "drawn " + (card == null ? "nothing" : card) + ", " + remaining + " left"; }
+    }
+
+    static final class DeckMutated extends Event {
+        final String action;
+        final int size;
+        DeckMutated(String action, int size){ this.action = action; this.size = size; }
+        @Override Kind kind(){ return Kind.DECK_MUTATED; }
+        @Override public String toString(){ return "deck " + action + ", " + size + " cards"; }
+    }
+
+    static final class BetPlaced extends Event {
+        final String player;
+        final long stakeCents;
+        final gamePanel.ChosenType type;
+        BetPlaced(String player, long stakeCents, gamePanel.ChosenType type){
+            this.player = player; this.stakeCents = stakeCents; this.type = type;
+        }
+        @Override Kind kind(){ return Kind.BET_PLACED; }
+        @Override public String toString(){ return player + " bets " + WalletLedger.format(stakeCents) + " on " + type; }
+    }
+
+    /** One played round, or a whole auto-play run (rounds > 1). */
+    static final class RoundSettled extends Event {
+        final String player;
+        final long rounds;         // settled by this event
+        final long wins;
+        final long netCents;       // change to the balance from these rounds
+        final long balanceCents;   // balance after settling
+        final long sessionRounds;  // running totals, so the latest event alone is enough
+        final long sessionWins;
+        final long sessionNetCents;
+        RoundSettled(String player, long rounds, long wins, long netCents, long balanceCents,
+                     long sessionRounds, long sessionWins, long sessionNetCents){
+            this.player = player; this.rounds = rounds; this.wins = wins; this.netCents = netCents; this.balanceCents = balanceCents;
+            this.sessionRounds = sessionRounds; this.sessionWins = sessionWins; this.sessionNetCents = sessionNetCents;
+        }
+        @Override Kind kind(){ return Kind.ROUND_SETTLED; }
+        @Override public String toString(){
+            String balance = ", balance " + WalletLedger.format(balanceCents);
+            if (rounds != 1) return player + " auto-played " + rounds + " rounds, " + wins + " won, net " + WalletLedger.format(netCents) + balance;
+            return player + (wins > 0 ? " won " : " lost ") + WalletLedger.format(Math.abs(netCents)) + balance;
+        }
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private final List<Sub> subs = new CopyOnWriteArrayList<>();
+    private final AtomicLong seq = new AtomicLong();
+    private final AtomicLongArray counts = new AtomicLongArray(KINDS.length);
+
+    @Override public void subscribe(Flow.Subscriber<? super Event> subscriber){
+        subscribe(subscriber, DEFAULT_EXECUTOR);
+    }
+
+    // Delivers onSubscribe/onNext on the given executor (e.g. SwingUtilities::invokeLater).
+    void subscribe(Flow.Subscriber<? super Event> subscriber, Executor executor){
+        Sub s = new Sub(subscriber, executor);
+        subs.add(s);
+        executor.execute(() -> subscriber.onSubscribe(s));
+    }
+
+    // Stamps the event and hands it to every subscription; O(1) per subscriber.
+    void publish(Event e){
+        e.seq = seq.incrementAndGet();
+        e.count = counts.incrementAndGet(e.kind().ordinal());
+        for (Sub s : subs) s.offer(e);
+    }
+
+    private static final Executor DEFAULT_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "game-events");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /* ---------------------- Subscriptions ---------------------- */
+
+    private final class Sub implements Flow.Subscription {
+        private final Flow.Subscriber<? super Event> subscriber;
+        private final Executor executor;
+        private final Map<Kind, Event> pending = new EnumMap<>(Kind.class); // latest per kind, guarded by this
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger(); // >0 while a drain is scheduled or running
+        private volatile boolean cancelled;
+        private volatile Throwable error;      // sent by the drain, so never alongside an onNext
+
+        Sub(Flow.Subscriber<? super Event> subscriber, Executor executor){
+            this.subscriber = subscriber;
+            this.executor = executor;
+        }
+
+        void offer(Event e){
+            if (cancelled) return;
+            // two publishers may race between stamping and offering; never let an older event win
+            synchronized (this){ pending.merge(e.kind(), e, (old, nw) -> nw.seq > old.seq ? nw : old); }
+            schedule();
+        }
+
+        @Override public void request(long n){
+            if (cancelled) return;
+            if (n <= 0){
+                error = new IllegalArgumentException("request(" + n + ")");
+                cancel();
+                schedule();
+                return;
+            }
+            demand.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            schedule();
+        }
+
+        @Override public void cancel(){
+            cancelled = true;
+            subs.remove(this);
+        }
+
+        private void schedule(){
+            if (wip.getAndIncrement() == 0) executor.execute(this::drain);
+        }
+
+        // one drain at a time per subscription; loops until no offer/request arrived meanwhile
+        private void drain(){
+            int missed = 1;
+            do {
+                Throwable t = error;
+                if (t != null){
+                    error = null;
+                    subscriber.onError(t);
+                }
+                while (!cancelled && demand.get() > 0){
+                    Event next = take();
+                    if (next == null) break;
+                    if (demand.get() != Long.MAX_VALUE) demand.decrementAndGet();
+                    try {
+                        subscriber.onNext(next);
+                    } catch (RuntimeException ex){
+                        ex.printStackTrace(); // one bad event; the subscription carries on with the next
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        // oldest of the pending events, so kinds interleave in publish order
+        private synchronized Event take(){
+            Event oldest = null;
+            for (Event e : pending.values()){
+                if (oldest == null || e.seq < oldest.seq) oldest = e;
+            }
+            if (oldest != null) pending.remove(oldest.kind());
+            return oldest;
+        }
+    }
+
+    /* ---------------------- Stock subscribers ---------------------- */
+
+    /** Base subscriber that requests one event at a time and ignores completion. */
+    abstract static class Listener implements Flow.Subscriber<Event> {
+        private Flow.Subscription subscription;
+        @Override public void onSubscribe(Flow.Subscription s){ subscription = s; s.request(1); }
+        @Override public void onNext(Event e){
+            try {
+                handle(e);
+            } finally {
+                subscription.request(1);
+            }
+        }
+        @Override public void onError(Throwable t){ t.printStackTrace(); }
+        @Override public void onComplete(){ }
+        abstract void handle(Event e);
+    }
+
+    /** Running session totals; exact under conflation since every field comes from the latest event. */
+    static final class SessionStats extends Listener {
+        private volatile long draws, rounds, wins, netCents;
+        private final Runnable onUpdate;
+
+        SessionStats(Runnable onUpdate){ this.onUpdate = onUpdate; }
+
+        @Override void handle(Event e){
+            if (e instanceof CardDrawn){
+                draws = e.count;
+            } else if (e instanceof RoundSettled){
+                RoundSettled r = (RoundSettled) e;
+                rounds = r.sessionRounds;
+                wins = r.sessionWins;
+                netCents = r.sessionNetCents;
+            } else {
+                return;
+            }
+            onUpdate.run();
+        }
+
+        String summary(){
+            return String.format("Session: %d draws, %d/%d rounds won, net %s", draws, wins, rounds, WalletLedger.format(netCents));
+        }
+    }
+
+    /** Logs every delivered event to the "carddrawer.events" logger at FINE, noting skipped ones. */
+    static final class EventLog extends Listener {
+        private static final Logger LOG = Logger.getLogger("carddrawer.events");
+        private final long[] lastCount = new long[KINDS.length];
+
+        @Override void handle(Event e){
+            int k = e.kind().ordinal();
+            long skipped = e.count - lastCount[k] - 1;
+            lastCount[k] = e.count;
+            if (!LOG.isLoggable(Level.FINE)) return;
+            LOG.fine(skipped > 0 ? e + " (" + skipped + " earlier " + e.kind() + " conflated)" : e.toString());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Progressive jackpot shared by every table in the JVM, in cents.
+ *
+ * Contributions go to one of several stripes picked by thread, each on its own cache line,
+ * so concurrent tables add to the pool without contending on one counter. Awards are rare
+ * and exclusive: a table reads epoch() when its card is drawn, and award(epoch) takes the
+ * whole pool only if no other award has happened since. Two hits on the same pool therefore
+ * never split it: the first takes everything and the other gets 0. The drain runs under the
+ * pool's lock; a contribution that lands on a stripe after the drain passed it belongs to
+ * the next pool, so every cent is still paid out exactly once.
+ */
+public final class JackpotPool {
+
+    private static final int PAD = 16; // longs per stripe: 128 bytes, clear of the adjacent-line prefetch
+    private static final JackpotPool SHARED = new JackpotPool(Runtime.getRuntime().availableProcessors() * 4);
+
+    private final AtomicLongArray cells;
+    private final int mask;
+    private volatile long epoch; // awards so far; written under the lock
+
+    JackpotPool(int stripes){
+        int n = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1; // next power of two >= stripes
+        cells = new AtomicLongArray(n * PAD);
+        mask = n - 1;
+    }
+
+    static JackpotPool shared(){ return SHARED; }
+
+    int stripes(){ return mask + 1; }
+
+    void contribute(long cents){
+        if (cents <= 0) return;
+        cells.getAndAdd(stripe() * PAD, cents);
+    }
+
+    // Read when a round's card is drawn; identifies the pool that card can win.
+    long epoch(){ return epoch; }
+
+    // Takes the whole pool if it has not been awarded since seen was read; otherwise 0.
+    synchronized long award(long seen){
+        if (epoch != seen) return 0;
+        epoch = seen + 1;
+        long total = 0;
+        for (int i = 0; i <= mask; i++) total += cells.getAndSet(i * PAD, 0);
+        return total;
+    }
+
+    // Current pool; only a snapshot while contributions are in flight.
+    long balance(){
+        long total = 0;
+        for (int i = 0; i <= mask; i++) total += cells.get(i * PAD);
+        return total;
+    }
+
+    // Contribution for a stake, as configured in the payout table.
+    static long contributionFor(long stakeCents, PayoutConfig config){
+        return Math.round(stakeCents * config.jackpotFraction);
+    }
+
+    // A winning INDIVIDUAL bet on the jackpot card takes the pool.
+    static boolean isHit(gamePanel.ChosenType type, boolean won, gamePanel.Card drawn, PayoutConfig config){
+        return config.jackpotEnabled() && won && type == gamePanel.ChosenType.INDIVIDUAL
+                && drawn != null && drawn.ordinal() == config.jackpotCard;
+    }
+
+    private int stripe(){
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    }
+}
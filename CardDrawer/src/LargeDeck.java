@@ -0,0 +1,215 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Deck over a large synthetic card universe: suits × ranks distinct card types (millions are
+ * fine), each either in the deck or not. A card is just its id, suit * ranks + rank, so the
+ * only per-card storage is a Fenwick tree of counts (4 bytes) and a presence bit.
+ *
+ * The Fenwick tree gives the k-th remaining card and the number of cards in any id range in
+ * O(log n). Removing a suit clears a contiguous id range and removing a rank clears one id per
+ * suit. Both only touch the cards actually present (absent words of the bitset are skipped 64
+ * ids at a time), and a removal that would touch most of the deck rebuilds the tree in O(n)
+ * instead.
+ *
+ * Every entry point rejects card ids outside [0, universe()) and suits or ranks outside the
+ * deck with IllegalArgumentException; the bitset has spare bits past n that the tree doesn't
+ * cover, so a stray id would otherwise corrupt select and draws.
+ *
+ * Not synchronized.
+ */
+public class LargeDeck {
+
+    private final int suits, ranks, n;
+    private final int[] tree;     // 1-based Fenwick tree over presence counts
+    private final long[] present; // bit id = card id in the deck
+    private final int topStep;    // highest power of two <= n, for select
+    private int size;
+
+    LargeDeck(int suits, int ranks){
+        if (suits <= 0 || ranks <= 0 || (long) suits * ranks >= Integer.MAX_VALUE)
+            throw new IllegalArgumentException("deck size out of range: " + suits + " x " + ranks);
+        this.suits = suits;
+        this.ranks = ranks;
+        this.n = suits * ranks;
+        tree = new int[n + 1];
+        present = new long[(n + 63) >>> 6];
+        topStep = Integer.highestOneBit(n);
+        resetToFull();
+    }
+
+    int suits(){ return suits; }
+    int ranks(){ return ranks; }
+    int universe(){ return n; }
+    int size(){ return size; }
+
+    int id(int suit, int rank){
+        checkSuit(suit);
+        if (rank < 0 || rank >= ranks) throw new IllegalArgumentException("bad rank " + rank);
+        return suit * ranks + rank;
+    }
+    int suitOf(int id){ return checkId(id) / ranks; }
+    int rankOf(int id){ return checkId(id) % ranks; }
+
+    // Approximate heap bytes per card type (tree + bitset).
+    static double bytesPerCard(){ return Integer.BYTES + 1.0 / 8; }
+
+    void resetToFull(){
+        Arrays.fill(present, -1L);
+        int tail = n & 63;
+        if (tail != 0) present[present.length - 1] = (1L << tail) - 1;
+        size = n;
+        rebuild();
+    }
+
+    boolean contains(int id){ return has(checkId(id)); }
+
+    private boolean has(int id){ return (present[id >>> 6] & (1L << id)) != 0; }
+
+    private int checkId(int id){
+        if (id < 0 || id >= n) throw new IllegalArgumentException("bad card id " + id);
+        return id;
+    }
+
+    private void checkSuit(int suit){
+        if (suit < 0 || suit >= suits) throw new IllegalArgumentException("bad suit " + suit);
+    }
+
+    boolean remove(int id){
+        if (!contains(id)) return false;
+        present[id >>> 6] &= ~(1L << id);
+        add(id, -1);
+        size--;
+        return true;
+    }
+
+    boolean addCard(int id){
+        if (contains(id)) return false;
+        present[id >>> 6] |= 1L << id;
+        add(id, 1);
+        size++;
+        return true;
+    }
+
+    // Id of the k-th (0-based) remaining card in id order.
+    int select(int k){
+        if (k < 0 || k >= size) throw new IndexOutOfBoundsException("k=" + k + ", size=" + size);
+        int pos = 0, rem = k + 1;
+        for (int step = topStep; step > 0; step >>>= 1){
+            int next = pos + step;
+            if (next <= n && tree[next] < rem){
+                pos = next;
+                rem -= tree[next];
+            }
+        }
+        return pos; // tree index pos + 1 holds it, i.e. id pos
+    }
+
+    // Number of remaining cards with id < end.
+    int countBelow(int end){
+        if (end < 0 || end > n) throw new IllegalArgumentException("bad id bound " + end);
+        int c = 0;
+        for (int i = end; i > 0; i -= i & -i) c += tree[i];
+        return c;
+    }
+
+    int countRange(int from, int to){ return countBelow(to) - countBelow(from); }
+
+    // Removes and returns a uniformly chosen remaining card id, or -1 if the deck is empty.
+    int drawRandom(Random rng){
+        if (size == 0) return -1;
+        int id = select(rng.nextInt(size));
+        remove(id);
+        return id;
+    }
+
+    // The remaining card ids in a uniformly random order, shuffled on all cores.
+    int[] shuffledIds(SplittableRandom rng){
+        int[] ids = new int[size];
+        int k = 0;
+        for (int w = 0; w < present.length; w++){
+            for (long b = present[w]; b != 0; b &= b - 1) ids[k++] = (w << 6) + Long.numberOfTrailingZeros(b);
+        }
+        ParallelShuffle.shuffle(ids, rng);
+        return ids;
+    }
+
+    /* ---------------------- Bulk removals ---------------------- */
+
+    int removeSuit(int suit){
+        checkSuit(suit);
+        return removeRange(suit * ranks, (suit + 1) * ranks);
+    }
+
+    // Removes every card with from <= id < to; returns how many were removed.
+    int removeRange(int from, int to){
+        if (from < 0 || to > n || from > to) throw new IllegalArgumentException("bad id range");
+        int count = countRange(from, to);
+        if (count == 0) return 0;
+        boolean rebuild = preferRebuild(count);
+        clearBits(from, to, !rebuild);
+        size -= count;
+        if (rebuild) rebuild();
+        return count;
+    }
+
+    int removeRank(int rank){ return removeRanks(rank, rank + 1); }
+
+    // Removes ranks fromRank <= r < toRank from every suit: one id range per suit, so the
+    // other ranks are never visited.
+    int removeRanks(int fromRank, int toRank){
+        if (fromRank < 0 || toRank > ranks || fromRank >= toRank) throw new IllegalArgumentException("bad rank range");
+        int count = 0;
+        for (int s = 0; s < suits; s++) count += countRange(s * ranks + fromRank, s * ranks + toRank);
+        if (count == 0) return 0;
+        boolean rebuild = preferRebuild(count);
+        for (int s = 0; s < suits; s++) clearBits(s * ranks + fromRank, s * ranks + toRank, !rebuild);
+        size -= count;
+        if (rebuild) rebuild();
+        return count;
+    }
+
+    // clears presence bits in [from, to), updating the tree per removed card unless it will be rebuilt
+    private void clearBits(int from, int to, boolean updateTree){
+        for (int w = from >>> 6, last = (to - 1) >>> 6; w <= last; w++){
+            long mask = -1L;
+            if (w == from >>> 6) mask &= -1L << (from & 63);
+            if (w == last) mask &= -1L >>> (63 - ((to - 1) & 63));
+            long hit = present[w] & mask;
+            if (hit == 0) continue;
+            present[w] &= ~hit;
+            if (updateTree){
+                for (long b = hit; b != 0; b &= b - 1) add((w << 6) + Long.numberOfTrailingZeros(b), -1);
+            }
+        }
+    }
+
+    int addSuit(int suit){
+        checkSuit(suit);
+        int added = 0;
+        for (int r = 0; r < ranks; r++) if (addCard(id(suit, r))) added++;
+        return added;
+    }
+
+    /* ---------------------- Fenwick tree ---------------------- */
+
+    private void add(int id, int delta){
+        for (int i = id + 1; i <= n; i += i & -i) tree[i] += delta;
+    }
+
+    // O(n) build from the presence bits
+    private void rebuild(){
+        for (int i = 1; i <= n; i++) tree[i] = has(i - 1) ? 1 : 0;
+        for (int i = 1; i <= n; i++){
+            int parent = i + (i & -i);
+            if (parent <= n) tree[parent] += tree[i];
+        }
+    }
+
+    // removing count cards one by one costs count * log n; a rebuild costs about 2n
+    private boolean preferRebuild(int count){
+        int logN = 32 - Integer.numberOfLeadingZeros(n);
+        return (long) count * logN > 2L * n;
+    }
+}
@@ -1,29 +1,53 @@
 
 import javax.swing.*;
 import java.awt.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
 
 public class Main {
 	public static void main(String[] args) {
+		long mainEntered = System.currentTimeMillis();
+		// --startup-bench reports time-to-first-frame and exits (also the CDS training run)
+		boolean startupBench = Arrays.asList(args).contains("--startup-bench");
+
 		Thread.setDefaultUncaughtExceptionHandler((t, e) -> {
 		    e.printStackTrace();
 		});
 
 		SwingUtilities.invokeLater(() -> {
-			
+
 
 		    JFrame window = new JFrame("Card Drawer");
 		    window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 		    window.setResizable(false);
 
+		    // constructor already builds the setup screen, no second setupGame() here
 		    gamePanel gp = new gamePanel();
 		    window.add(gp);
 
+		    if (startupBench) {
+		        gp.onFirstFrame(() -> {
+		            reportStartup(mainEntered);
+		            System.exit(0);
+		        });
+		    }
+
 		    window.pack();
 		    window.setLocationRelativeTo(null);
 		    window.setVisible(true);
-
-		    gp.setupGame();
 		});
-		
+
+	}
+
+	private static void reportStartup(long mainEntered) {
+		long now = System.currentTimeMillis();
+		Instant jvmStart = ProcessHandle.current().info().startInstant().orElse(null);
+		if (jvmStart != null) {
+			long jvmToMain = mainEntered - jvmStart.toEpochMilli();
+			long jvmToFrame = Duration.between(jvmStart, Instant.ofEpochMilli(now)).toMillis();
+			System.out.println("startup: jvm->main " + jvmToMain + " ms, jvm->first frame " + jvmToFrame + " ms");
+		}
+		System.out.println("startup: main->first frame " + (now - mainEntered) + " ms");
 	}
 }
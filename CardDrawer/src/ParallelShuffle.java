@@ -0,0 +1,132 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel uniform shuffle of an int[] by random scattering (Sanders 1998).
+ *
+ *   1. every element is sent to one of 2^k buckets, chosen uniformly and independently;
+ *   2. the elements are copied out bucket by bucket (stable, so no randomness is added here);
+ *   3. each bucket is Fisher-Yates shuffled and copied back.
+ *
+ * The result is uniform: for any two orders with the same bucket sizes, step 1 picks the
+ * needed assignment with the same probability and step 3 then produces either order with
+ * probability 1 / (product of bucket size factorials), so every order is equally likely.
+ *
+ * Steps 1-2 split the array into chunks and step 3 works per bucket, each on its own
+ * generator, so all three run on every core. Buckets are sized to stay in cache, which is
+ * what makes a plain Fisher-Yates pass slow on huge arrays: its swaps hit random memory.
+ * Needs one scratch array the size of the input.
+ */
+public final class ParallelShuffle {
+
+    static final int SEQUENTIAL_BELOW = 1 << 16; // plain Fisher-Yates up to this size
+    static final int BUCKET_TARGET = 1 << 15;    // elements per bucket, about L2-sized
+
+    private ParallelShuffle(){ }
+
+    // Shuffles a in place on the common ForkJoin pool.
+    static void shuffle(int[] a, SplittableRandom rng){
+        shuffle(a, rng, ForkJoinPool.commonPool());
+    }
+
+    static void shuffle(int[] a, SplittableRandom rng, ForkJoinPool pool){
+        if (a.length <= SEQUENTIAL_BELOW){
+            fisherYates(a, 0, a.length, rng);
+            return;
+        }
+        int bucketBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(a.length / BUCKET_TARGET));
+        scatterShuffle(a, rng, pool, Math.min(bucketBits, 16), pool.getParallelism() * 4);
+    }
+
+    /**
+     * The whole algorithm with its shape exposed; pool null runs every step on the calling
+     * thread. Audits use tiny arrays with few buckets and chunks to exercise it thoroughly.
+     */
+    static void scatterShuffle(int[] a, SplittableRandom rng, ForkJoinPool pool, int bucketBits, int chunks){
+        int n = a.length;
+        int buckets = 1 << bucketBits;
+        int nChunks = Math.max(1, Math.min(chunks, n));
+        long[] chunkSeeds = new long[nChunks];
+        for (int c = 0; c < nChunks; c++) chunkSeeds[c] = rng.nextLong();
+        long[] bucketSeeds = new long[buckets];
+        for (int b = 0; b < buckets; b++) bucketSeeds[b] = rng.nextLong();
+
+        // 1. count each chunk's bucket choices; the same seed replays them in step 2
+        int[][] counts = new int[nChunks][buckets];
+        run(pool, nChunks, c -> {
+            BucketStream s = new BucketStream(chunkSeeds[c], bucketBits);
+            int[] count = counts[c];
+            for (int i = start(c, n, nChunks), end = start(c + 1, n, nChunks); i < end; i++) count[s.next()]++;
+        });
+
+        // chunk c's slice of bucket b starts after all smaller buckets and bucket b of earlier chunks
+        int[] bucketStart = new int[buckets + 1];
+        int pos = 0;
+        for (int b = 0; b < buckets; b++){
+            bucketStart[b] = pos;
+            for (int c = 0; c < nChunks; c++){
+                int k = counts[c][b];
+                counts[c][b] = pos;
+                pos += k;
+            }
+        }
+        bucketStart[buckets] = n;
+
+        // 2. scatter into the scratch array
+        int[] out = new int[n];
+        run(pool, nChunks, c -> {
+            BucketStream s = new BucketStream(chunkSeeds[c], bucketBits);
+            int[] next = counts[c];
+            for (int i = start(c, n, nChunks), end = start(c + 1, n, nChunks); i < end; i++) out[next[s.next()]++] = a[i];
+        });
+
+        // 3. copy each bucket back and shuffle it while it is in cache
+        run(pool, buckets, b -> {
+            int lo = bucketStart[b], hi = bucketStart[b + 1];
+            System.arraycopy(out, lo, a, lo, hi - lo);
+            fisherYates(a, lo, hi, new SplittableRandom(bucketSeeds[b]));
+        });
+    }
+
+    private static int start(int chunk, int n, int chunks){ return (int) ((long) n * chunk / chunks); }
+
+    private static void run(ForkJoinPool pool, int tasks, IntConsumer body){
+        if (pool == null){
+            for (int t = 0; t < tasks; t++) body.accept(t);
+        } else {
+            pool.submit(() -> IntStream.range(0, tasks).parallel().forEach(body)).join();
+        }
+    }
+
+    // uniform bucket numbers, several per nextLong
+    private static final class BucketStream {
+        private final SplittableRandom rng;
+        private final int bits, perWord, mask;
+        private long word;
+        private int left;
+
+        BucketStream(long seed, int bits){
+            this.rng = new SplittableRandom(seed);
+            this.bits = bits;
+            this.perWord = 64 / bits;
+            this.mask = (1 << bits) - 1;
+        }
+
+        int next(){
+            if (left == 0){ word = rng.nextLong(); left = perWord; }
+            int b = (int) word & mask;
+            word >>>= bits;
+            left--;
+            return b;
+        }
+    }
+
+    static void fisherYates(int[] a, int lo, int hi, SplittableRandom rng){
+        for (int i = hi - 1; i > lo; i--){
+            int j = lo + rng.nextInt(i - lo + 1);
+            int t = a[i]; a[i] = a[j]; a[j] = t;
+        }
+    }
+}
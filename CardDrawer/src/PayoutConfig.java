@@ -0,0 +1,213 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable, validated payout multipliers, one per bet type.
+ *
+ * The live table sits in a single AtomicReference shared by every table in the JVM. A reload
+ * (payout file change or Settings tab) builds and validates a complete new PayoutConfig, then
+ * swaps it in with one set(), so readers never see a half-applied update. Callers should
+ * get() once per decision and read everything from that snapshot.
+ *
+ * File format (properties): multiplier.individual, multiplier.suit, multiplier.colour and
+ * multiplier.face, all required, so a half-written file is rejected rather than applied.
+ * Optional: jackpot.fraction (share of every stake paid into the JackpotPool, 0 = no jackpot)
+ * and jackpot.card (card code such as AS or 10H that wins the pool on an INDIVIDUAL bet).
+ */
+public final class PayoutConfig {
+
+    static final double MAX_MULTIPLIER = 1000.0;
+    static final double MAX_JACKPOT_FRACTION = 0.5;
+    static final int DEFAULT_JACKPOT_CARD = 39; // A of spades
+    private static final long SETTLE_MS = 100; // let an editor finish writing before reading
+    static final PayoutConfig DEFAULTS = new PayoutConfig(4.0, 3.0, 2.0, 2.0, 0.0, DEFAULT_JACKPOT_CARD);
+
+    private static final AtomicReference<PayoutConfig> CURRENT = new AtomicReference<>(DEFAULTS);
+    private static Thread watcher;
+
+    final double individual;
+    final double suit;
+    final double colour;
+    final double face;
+    final double jackpotFraction;
+    final int jackpotCard; // card ordinal
+
+    private PayoutConfig(double individual, double suit, double colour, double face, double jackpotFraction, int jackpotCard){
+        this.individual = individual;
+        this.suit = suit;
+        this.colour = colour;
+        this.face = face;
+        this.jackpotFraction = jackpotFraction;
+        this.jackpotCard = jackpotCard;
+    }
+
+    // Validates every value before anything is published; throws IllegalArgumentException.
+    static PayoutConfig of(double individual, double suit, double colour, double face){
+        return of(individual, suit, colour, face, 0.0, DEFAULT_JACKPOT_CARD);
+    }
+
+    static PayoutConfig of(double individual, double suit, double colour, double face, double jackpotFraction, int jackpotCard){
+        check("individual", individual);
+        check("suit", suit);
+        check("colour", colour);
+        check("face", face);
+        if (!Double.isFinite(jackpotFraction) || jackpotFraction < 0 || jackpotFraction > MAX_JACKPOT_FRACTION)
+            throw new IllegalArgumentException("jackpot.fraction must be between 0 and " + MAX_JACKPOT_FRACTION + " (was " + jackpotFraction + ")");
+        if (jackpotCard < 0 || jackpotCard >= 52) throw new IllegalArgumentException("jackpot.card must be a standard card");
+        return new PayoutConfig(individual, suit, colour, face, jackpotFraction, jackpotCard);
+    }
+
+    // Same multipliers, this config's jackpot settings.
+    PayoutConfig withMultipliers(double individual, double suit, double colour, double face){
+        return of(individual, suit, colour, face, jackpotFraction, jackpotCard);
+    }
+
+    boolean jackpotEnabled(){ return jackpotFraction > 0; }
+
+    private static void check(String name, double v){
+        if (!Double.isFinite(v) || v <= 0 || v > MAX_MULTIPLIER)
+            throw new IllegalArgumentException("multiplier." + name + " must be > 0 and <= " + MAX_MULTIPLIER + " (was " + v + ")");
+    }
+
+    double forType(gamePanel.ChosenType type){
+        switch (type){
+            case INDIVIDUAL: return individual;
+            case SUIT: return suit;
+            case COLOUR: return colour;
+            default: return face;
+        }
+    }
+
+    static PayoutConfig current(){ return CURRENT.get(); }
+
+    static void publish(PayoutConfig config){ CURRENT.set(config); }
+
+    static PayoutConfig parse(Properties p){
+        String card = p.getProperty("jackpot.card");
+        return of(value(p, "multiplier.individual"),
+                  value(p, "multiplier.suit"),
+                  value(p, "multiplier.colour"),
+                  value(p, "multiplier.face"),
+                  p.getProperty("jackpot.fraction") == null ? 0.0 : value(p, "jackpot.fraction"),
+                  card == null ? DEFAULT_JACKPOT_CARD : parseCard(card.trim()));
+    }
+
+    // rank then suit letter: AS, 10H, QD, 7C
+    static String cardCode(int ordinal){
+        return gamePanel.Card.ofOrdinal(ordinal).rank + "HDCS".charAt(ordinal / 13);
+    }
+
+    static int parseCard(String code){
+        for (int o = 0; o < 52; o++){
+            if (cardCode(o).equalsIgnoreCase(code)) return o;
+        }
+        throw new IllegalArgumentException("jackpot.card is not a card code like AS or 10H: " + code);
+    }
+
+    private static double value(Properties p, String key){
+        String v = p.getProperty(key);
+        if (v == null) throw new IllegalArgumentException(key + " is missing");
+        try {
+            return Double.parseDouble(v.trim());
+        } catch (NumberFormatException ex){
+            throw new IllegalArgumentException(key + " is not a number: " + v);
+        }
+    }
+
+    static PayoutConfig load(Path file) throws IOException {
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(file)){
+            p.load(in);
+        }
+        return parse(p);
+    }
+
+    // Writes every key, replacing the file in one move so the watcher never reads half of it.
+    static void save(PayoutConfig config, Path file) throws IOException {
+        Properties p = new Properties();
+        p.setProperty("multiplier.individual", Double.toString(config.individual));
+        p.setProperty("multiplier.suit", Double.toString(config.suit));
+        p.setProperty("multiplier.colour", Double.toString(config.colour));
+        p.setProperty("multiplier.face", Double.toString(config.face));
+        p.setProperty("jackpot.fraction", Double.toString(config.jackpotFraction));
+        p.setProperty("jackpot.card", cardCode(config.jackpotCard));
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)){
+            p.store(out, "CardDrawer payout table");
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // -Dcarddrawer.payouts, else ~/.carddrawer/payouts.properties
+    static Path defaultFile(){
+        return Paths.get(System.getProperty("carddrawer.payouts",
+                Paths.get(System.getProperty("user.home"), ".carddrawer", "payouts.properties").toString())).toAbsolutePath();
+    }
+
+    /* ---------------------- File watching ---------------------- */
+
+    // Starts (once per JVM) a daemon thread that loads the payout file and reloads it on change.
+    static synchronized void watchDefaultFile(){
+        if (watcher != null) return;
+        Path file = defaultFile();
+        watcher = new Thread(() -> watch(file), "payout-config-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private static void watch(Path file){
+        reload(file);
+        Path dir = file.getParent();
+        if (dir == null) return;
+        try (WatchService ws = FileSystems.getDefault().newWatchService()){
+            Files.createDirectories(dir); // a fresh install has no ~/.carddrawer yet
+            dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            while (true){
+                WatchKey key = ws.take();
+                boolean changed = false;
+                while (key != null){
+                    for (WatchEvent<?> ev : key.pollEvents()){
+                        if (file.getFileName().equals(ev.context())) changed = true;
+                    }
+                    if (!key.reset()) return;
+                    key = ws.poll(SETTLE_MS, TimeUnit.MILLISECONDS);
+                }
+                if (changed) reload(file);
+            }
+        } catch (IOException | ClosedWatchServiceException ex){
+            ex.printStackTrace();
+        } catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // A bad file is reported and ignored; the previous table stays live.
+    private static void reload(Path file){
+        if (!Files.isRegularFile(file)) return;
+        try {
+            publish(load(file));
+        } catch (IOException | IllegalArgumentException ex){
+            System.err.println("Payout config " + file + " not applied: " + ex.getMessage());
+        }
+    }
+
+    @Override public String toString(){
+        return String.format("individual=%.2f suit=%.2f colour=%.2f face=%.2f jackpot=%.4f on %s",
+                individual, suit, colour, face, jackpotFraction, gamePanel.Card.ofOrdinal(jackpotCard));
+    }
+}
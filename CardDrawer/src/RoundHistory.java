@@ -0,0 +1,630 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only columnar record of settled rounds, for analysis outside the game.
+ *
+ * Rounds are buffered column by column and written as row groups of up to ROWS_PER_GROUP
+ * rows, so the writer's memory stays fixed however long it runs. Each column of a group is
+ * encoded, then deflated on its own; the group header stores every column's length, so a
+ * reader can seek straight to the columns it needs and never inflate the others.
+ *
+ * File layout (big-endian):
+ *   int   MAGIC, int VERSION
+ *   group*:
+ *     int  rows
+ *     per column, in Column order: int compressed length, int encoded length
+ *     the compressed columns, in Column order
+ *
+ * Column encodings (before deflate):
+ *   CARD        dictionary: varint size, zigzag varint entries, then one bit-packed index
+ *               per row (0 bits when the group drew a single card); -1 = no card
+ *   BET_TYPE    one byte per row, gamePanel.ChosenType ordinal
+ *   TARGET      one byte per row, as in TableStore: card, suit or colour ordinal (0 for FACE)
+ *   AMOUNT      stake in cents, zigzag varint delta from the previous row
+ *   MULTIPLIER  varint of the double's bits XOR the previous row's (0 while unchanged)
+ *   OUTCOME     net cents for the player incl. any jackpot, zigzag varint; > 0 means won
+ *   TIMESTAMP   epoch millis, zigzag varint delta from the previous row
+ *
+ * A group cut short by a crash is dropped when the file is reopened for writing; readers
+ * treat it as the end of the file.
+ */
+public final class RoundHistory {
+
+    static final int MAGIC = 0x43445248; // "CDRH"
+    static final int VERSION = 1;
+    static final int ROWS_PER_GROUP = 1 << 16;
+    static final long MAX_GROUP_MILLIS = 60_000; // a slow table still writes a group a minute
+
+    enum Column { CARD, BET_TYPE, TARGET, AMOUNT, MULTIPLIER, OUTCOME, TIMESTAMP }
+
+    private static final Column[] COLUMNS = Column.values();
+    private static final int FILE_HEADER = 8;
+    private static final int GROUP_HEADER = 4 + COLUMNS.length * 8;
+
+    private static Writer shared;
+
+    private RoundHistory(){ }
+
+    // Target of a bet in the TableStore encoding.
+    static int target(gamePanel.ChosenType type, String rank, gamePanel.Suit suit, gamePanel.ColorType colour){
+        switch (type){
+            case INDIVIDUAL: return new gamePanel.Card(rank, suit).ordinal();
+            case SUIT: return suit.ordinal();
+            case COLOUR: return colour.ordinal();
+            default: return 0;
+        }
+    }
+
+    /**
+     * The writer for this JVM's rounds (-Dcarddrawer.history overrides the file, "off"
+     * disables it), closed at JVM exit. Null if disabled or the file can't be opened.
+     */
+    static synchronized Writer shared(){
+        if (shared == null){
+            String path = System.getProperty("carddrawer.history",
+                    Paths.get(System.getProperty("user.home"), ".carddrawer", "rounds.cdh").toString());
+            if ("off".equalsIgnoreCase(path)) return null;
+            try {
+                Writer w = new Writer(Paths.get(path));
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        w.close();
+                    } catch (IOException ex){
+                        ex.printStackTrace();
+                    }
+                }, "history-close"));
+                shared = w;
+            } catch (IOException ex){
+                System.err.println("Round history " + path + " not recorded: " + ex.getMessage());
+                return null;
+            }
+        }
+        return shared;
+    }
+
+    /* ---------------------- Writer ---------------------- */
+
+    /**
+     * Appends rounds to a history file; rows reach the disk a whole group at a time. append()
+     * only fills the current group's columns. A full group, or one open for MAX_GROUP_MILLIS
+     * even with no more rounds coming, is handed to the writer's own thread, which encodes,
+     * deflates and writes it while the next group fills. An append only waits if a second
+     * group fills before the first is on disk. A write error is reported by the next append.
+     */
+    static final class Writer implements Closeable {
+        private final FileChannel ch;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED); // writer thread only
+        private final Bytes encoded = new Bytes();
+        private final Bytes compressed = new Bytes();
+        private final Thread thread;
+        private Group filling = new Group(), spare = new Group();
+        private Group full;                 // handed to the writer thread, null once it's on disk
+        private IOException failure;        // first write error, rethrown to appenders
+        private boolean failed;             // recorder() gave up after an error
+        private boolean closed;
+
+        // Creates the file, or appends to it after dropping a torn last group.
+        Writer(Path file) throws IOException {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                if (ch.size() == 0){
+                    writeFully(ByteBuffer.allocate(FILE_HEADER).putInt(MAGIC).putInt(VERSION).flip());
+                } else {
+                    long end = FILE_HEADER;
+                    readFileHeader(ch);
+                    ByteBuffer header = ByteBuffer.allocate(GROUP_HEADER);
+                    for (long len; (len = groupLength(ch, end, header)) > 0; ) end += len;
+                    ch.truncate(end);
+                    ch.position(end);
+                }
+            } catch (IOException ex){
+                ch.close();
+                throw ex;
+            }
+            thread = new Thread(this::writeLoop, "history-writer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * @param card       drawn card ordinal, -1 if none
+         * @param netCents   what the round did to the player's balance, jackpot included
+         * @param epochMillis settle time
+         */
+        synchronized void append(int card, gamePanel.ChosenType type, int target, long stakeCents,
+                                 double multiplier, long netCents, long epochMillis) throws IOException {
+            if (closed) throw new IOException("round history is closed");
+            if (failure != null) throw new IOException("round history write failed", failure);
+            if (card < -1 || card >= gamePanel.Card.ORDINALS) throw new IllegalArgumentException("bad card ordinal " + card);
+            Group g = filling;
+            if (g.rows > 0 && epochMillis - g.times[0] >= MAX_GROUP_MILLIS){
+                handOff();
+                g = filling;
+            }
+            int i = g.rows;
+            if (i == 0){
+                g.openedAt = System.currentTimeMillis();
+                notifyAll(); // the writer thread starts timing this group
+            }
+            g.cards[i] = card;
+            g.types[i] = (byte) type.ordinal();
+            g.targets[i] = (byte) target;
+            g.amounts[i] = stakeCents;
+            g.multipliers[i] = multiplier;
+            g.outcomes[i] = netCents;
+            g.times[i] = epochMillis;
+            if (++g.rows == ROWS_PER_GROUP) handOff();
+        }
+
+        // Record stage for RoundPipeline; runs on the pipeline's record thread. A write error
+        // stops recording, the rounds themselves keep flowing.
+        RoundPipeline.Stage recorder(){
+            return r -> {
+                synchronized (this){
+                    if (failed) return;
+                    try {
+                        append(r.card == null ? -1 : r.card.ordinal(), r.table.type, r.table.target, r.table.betCents,
+                               r.multiplier, r.payoutCents - r.table.betCents, System.currentTimeMillis());
+                    } catch (IOException ex){
+                        failed = true;
+                        ex.printStackTrace();
+                    }
+                }
+            };
+        }
+
+        // Writes buffered rows now, as a (possibly short) group, and waits until they're on disk.
+        synchronized void flush() throws IOException {
+            if (filling.rows > 0) handOff();
+            awaitWritten();
+            if (failure != null) throw new IOException("round history write failed", failure);
+        }
+
+        @Override public void close() throws IOException {
+            synchronized (this){
+                if (closed) return;
+                if (filling.rows > 0) handOff();
+                closed = true;
+                notifyAll();
+            }
+            boolean interrupted = false;
+            while (thread.isAlive()){
+                try {
+                    thread.join();
+                } catch (InterruptedException ex){
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+            deflater.end();
+            ch.close();
+            synchronized (this){
+                if (failure != null) throw new IOException("round history write failed", failure);
+            }
+        }
+
+        // with the lock held: give the filling group to the writer thread, once it has taken the last one
+        private void handOff(){
+            awaitWritten();
+            full = filling;
+            filling = spare;
+            spare = null;
+            notifyAll();
+        }
+
+        private void awaitWritten(){
+            boolean interrupted = false;
+            while (full != null){
+                try {
+                    wait();
+                } catch (InterruptedException ex){
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+
+        // Writes handed-off groups, and the filling group once it has been open MAX_GROUP_MILLIS.
+        private void writeLoop(){
+            while (true){
+                Group g;
+                synchronized (this){
+                    while (full == null){
+                        if (filling.rows > 0){
+                            long wait = filling.openedAt + MAX_GROUP_MILLIS - System.currentTimeMillis();
+                            if (wait <= 0 || closed){
+                                handOff(); // idle table: write what it has
+                                break;
+                            }
+                            waitQuietly(wait);
+                        } else {
+                            if (closed) return;
+                            waitQuietly(0);
+                        }
+                    }
+                    g = full;
+                }
+                try {
+                    if (failure == null) writeGroup(g);
+                } catch (IOException | RuntimeException ex){
+                    IOException io = ex instanceof IOException ? (IOException) ex : new IOException(ex);
+                    synchronized (this){ failure = io; }
+                    io.printStackTrace();
+                }
+                synchronized (this){
+                    g.rows = 0;
+                    spare = g;
+                    full = null;
+                    notifyAll();
+                }
+            }
+        }
+
+        private void waitQuietly(long millis){
+            try {
+                wait(millis);
+            } catch (InterruptedException ex){
+                // only close() ends the loop
+            }
+        }
+
+        private void writeGroup(Group g) throws IOException {
+            int n = g.rows;
+            ByteBuffer header = ByteBuffer.allocate(GROUP_HEADER).putInt(n);
+            compressed.len = 0;
+            for (Column c : COLUMNS){
+                encoded.len = 0;
+                encode(c, g, n);
+                int start = compressed.len;
+                deflater.reset();
+                deflater.setInput(encoded.buf, 0, encoded.len);
+                deflater.finish();
+                while (!deflater.finished()){
+                    compressed.ensure(compressed.len + 4096);
+                    compressed.len += deflater.deflate(compressed.buf, compressed.len, compressed.buf.length - compressed.len);
+                }
+                header.putInt(compressed.len - start).putInt(encoded.len);
+            }
+            long start = ch.position();
+            try {
+                writeFully(header.flip());
+                writeFully(ByteBuffer.wrap(compressed.buf, 0, compressed.len));
+            } catch (IOException ex){
+                ch.truncate(start); // don't leave a torn group for later groups to follow
+                throw ex;
+            }
+        }
+
+        private void encode(Column c, Group g, int n){
+            switch (c){
+                case CARD: {
+                    int[] cards = g.cards;
+                    int[] index = new int[gamePanel.Card.ORDINALS + 1]; // by ordinal + 1; 0 = not in dictionary
+                    int[] dict = new int[index.length];
+                    int size = 0;
+                    for (int i = 0; i < n; i++){
+                        if (index[cards[i] + 1] == 0){ dict[size++] = cards[i]; index[cards[i] + 1] = size; }
+                    }
+                    encoded.putVarLong(size);
+                    for (int i = 0; i < size; i++) encoded.putVarLong(zigzag(dict[i]));
+                    int bits = bitsFor(size);
+                    long acc = 0;
+                    int held = 0;
+                    for (int i = 0; i < n && bits > 0; i++){
+                        acc |= (long) (index[cards[i] + 1] - 1) << held;
+                        held += bits;
+                        while (held >= 8){ encoded.put((int) acc); acc >>>= 8; held -= 8; }
+                    }
+                    if (held > 0) encoded.put((int) acc);
+                    break;
+                }
+                case BET_TYPE: encoded.put(g.types, n); break;
+                case TARGET: encoded.put(g.targets, n); break;
+                case AMOUNT: {
+                    long prev = 0;
+                    for (int i = 0; i < n; i++){ encoded.putVarLong(zigzag(g.amounts[i] - prev)); prev = g.amounts[i]; }
+                    break;
+                }
+                case MULTIPLIER: {
+                    long prev = 0;
+                    for (int i = 0; i < n; i++){
+                        long bits = Double.doubleToLongBits(g.multipliers[i]);
+                        encoded.putVarLong(bits ^ prev);
+                        prev = bits;
+                    }
+                    break;
+                }
+                case OUTCOME:
+                    for (int i = 0; i < n; i++) encoded.putVarLong(zigzag(g.outcomes[i]));
+                    break;
+                default: {
+                    long prev = 0;
+                    for (int i = 0; i < n; i++){ encoded.putVarLong(zigzag(g.times[i] - prev)); prev = g.times[i]; }
+                }
+            }
+        }
+
+        private void writeFully(ByteBuffer b) throws IOException {
+            while (b.hasRemaining()) ch.write(b);
+        }
+    }
+
+    // One row group's columns while it fills; the writer keeps two and swaps them.
+    private static final class Group {
+        final int[] cards = new int[ROWS_PER_GROUP];
+        final byte[] types = new byte[ROWS_PER_GROUP];
+        final byte[] targets = new byte[ROWS_PER_GROUP];
+        final long[] amounts = new long[ROWS_PER_GROUP];
+        final double[] multipliers = new double[ROWS_PER_GROUP];
+        final long[] outcomes = new long[ROWS_PER_GROUP];
+        final long[] times = new long[ROWS_PER_GROUP];
+        int rows;
+        long openedAt; // wall clock of the first row
+    }
+
+    /* ---------------------- Reader ---------------------- */
+
+    /**
+     * Walks a history file group by group. Columns are read on demand: asking for one column
+     * reads and inflates only that column's bytes of the current group.
+     */
+    static final class Reader implements Closeable {
+        private final FileChannel ch;
+        private final Inflater inflater = new Inflater();
+        private final ByteBuffer header = ByteBuffer.allocate(GROUP_HEADER);
+        private long groupStart = -1, next = FILE_HEADER;
+        private int rows;
+        private ByteBuffer in = ByteBuffer.allocate(0);
+        private byte[] raw = new byte[0];
+        private int pos;
+
+        Reader(Path file) throws IOException {
+            ch = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                readFileHeader(ch);
+            } catch (IOException ex){
+                ch.close();
+                throw ex;
+            }
+        }
+
+        // Moves to the next complete group; false at the end of the file.
+        boolean nextGroup() throws IOException {
+            long len = groupLength(ch, next, header);
+            if (len <= 0) return false;
+            groupStart = next;
+            next += len;
+            rows = header.getInt(0);
+            return true;
+        }
+
+        int rows(){ return rows; }
+
+        long compressedBytes(Column c){ return header.getInt(4 + c.ordinal() * 8); }
+
+        // CARD, BET_TYPE or TARGET
+        int[] ints(Column c) throws IOException {
+            int[] out = new int[rows];
+            switch (c){
+                case CARD: {
+                    load(c);
+                    int size = (int) readVarLong();
+                    int[] dict = new int[size];
+                    for (int i = 0; i < size; i++) dict[i] = (int) unzigzag(readVarLong());
+                    int bits = bitsFor(size);
+                    if (bits == 0){
+                        Arrays.fill(out, size == 0 ? -1 : dict[0]);
+                        break;
+                    }
+                    long acc = 0;
+                    int held = 0, m = (1 << bits) - 1;
+                    for (int i = 0; i < rows; i++){
+                        while (held < bits){ acc |= (long) (raw[pos++] & 0xFF) << held; held += 8; }
+                        int k = (int) acc & m;
+                        if (k >= size) throw new IOException("corrupt CARD column: index " + k);
+                        out[i] = dict[k];
+                        acc >>>= bits;
+                        held -= bits;
+                    }
+                    break;
+                }
+                case BET_TYPE:
+                case TARGET:
+                    load(c);
+                    for (int i = 0; i < rows; i++) out[i] = raw[i];
+                    break;
+                default: throw new IllegalArgumentException(c + " is not an int column");
+            }
+            return out;
+        }
+
+        // AMOUNT, OUTCOME or TIMESTAMP
+        long[] longs(Column c) throws IOException {
+            if (c != Column.AMOUNT && c != Column.OUTCOME && c != Column.TIMESTAMP)
+                throw new IllegalArgumentException(c + " is not a long column");
+            load(c);
+            long[] out = new long[rows];
+            long prev = 0;
+            for (int i = 0; i < rows; i++){
+                long v = unzigzag(readVarLong());
+                out[i] = c == Column.OUTCOME ? v : (prev += v);
+            }
+            return out;
+        }
+
+        // MULTIPLIER
+        double[] doubles(Column c) throws IOException {
+            if (c != Column.MULTIPLIER) throw new IllegalArgumentException(c + " is not a double column");
+            load(c);
+            double[] out = new double[rows];
+            long prev = 0;
+            for (int i = 0; i < rows; i++){
+                prev ^= readVarLong();
+                out[i] = Double.longBitsToDouble(prev);
+            }
+            return out;
+        }
+
+        @Override public void close() throws IOException {
+            inflater.end();
+            ch.close();
+        }
+
+        // reads and inflates one column of the current group into raw
+        private void load(Column c) throws IOException {
+            if (groupStart < 0) throw new IllegalStateException("call nextGroup() first");
+            long offset = groupStart + GROUP_HEADER;
+            for (int i = 0; i < c.ordinal(); i++) offset += header.getInt(4 + i * 8);
+            int clen = header.getInt(4 + c.ordinal() * 8), elen = header.getInt(8 + c.ordinal() * 8);
+            if (in.capacity() < clen) in = ByteBuffer.allocate(clen);
+            in.clear().limit(clen);
+            while (in.hasRemaining()){
+                if (ch.read(in, offset + in.position()) < 0) throw new IOException("truncated " + c + " column");
+            }
+            if (raw.length < elen) raw = new byte[elen];
+            inflater.reset();
+            inflater.setInput(in.array(), 0, clen);
+            try {
+                int got = 0;
+                while (got < elen && !inflater.finished()){
+                    int k = inflater.inflate(raw, got, elen - got);
+                    if (k == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                    got += k;
+                }
+                if (got != elen) throw new IOException("corrupt " + c + " column: " + got + " of " + elen + " bytes");
+            } catch (DataFormatException ex){
+                throw new IOException("corrupt " + c + " column", ex);
+            }
+            pos = 0;
+        }
+
+        private long readVarLong() throws IOException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7){
+                byte b = raw[pos++];
+                v |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return v;
+            }
+            throw new IOException("corrupt varint");
+        }
+    }
+
+    /* ---------------------- Shared helpers ---------------------- */
+
+    private static void readFileHeader(FileChannel ch) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(FILE_HEADER);
+        while (b.hasRemaining()){
+            if (ch.read(b, b.position()) < 0) throw new IOException("not a round history file (too short)");
+        }
+        if (b.getInt(0) != MAGIC) throw new IOException("not a round history file");
+        if (b.getInt(4) != VERSION) throw new IOException("unsupported round history version " + b.getInt(4));
+    }
+
+    // Reads the group header at pos into b; returns the group's length, 0 if no complete group is there.
+    private static long groupLength(FileChannel ch, long pos, ByteBuffer b) throws IOException {
+        long size = ch.size();
+        if (pos + GROUP_HEADER > size) return 0;
+        b.clear();
+        while (b.hasRemaining()){
+            if (ch.read(b, pos + b.position()) < 0) return 0;
+        }
+        int rows = b.getInt(0);
+        if (rows <= 0 || rows > ROWS_PER_GROUP) throw new IOException("corrupt group header at byte " + pos);
+        long len = GROUP_HEADER;
+        for (int i = 0; i < COLUMNS.length; i++){
+            int clen = b.getInt(4 + i * 8), elen = b.getInt(8 + i * 8);
+            if (clen < 0 || elen < 0) throw new IOException("corrupt group header at byte " + pos);
+            len += clen;
+        }
+        return pos + len <= size ? len : 0;
+    }
+
+    private static int bitsFor(int dictionarySize){ return dictionarySize <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(dictionarySize - 1); }
+
+    private static long zigzag(long v){ return (v << 1) ^ (v >> 63); }
+
+    private static long unzigzag(long v){ return (v >>> 1) ^ -(v & 1); }
+
+    // growable byte array for encoding a column
+    private static final class Bytes {
+        byte[] buf = new byte[1 << 16];
+        int len;
+
+        void ensure(int capacity){
+            if (buf.length < capacity) buf = Arrays.copyOf(buf, Math.max(capacity, buf.length * 2));
+        }
+
+        void put(int b){
+            ensure(len + 1);
+            buf[len++] = (byte) b;
+        }
+
+        void put(byte[] src, int n){
+            ensure(len + n);
+            System.arraycopy(src, 0, buf, len, n);
+            len += n;
+        }
+
+        void putVarLong(long v){
+            ensure(len + 10);
+            while ((v & ~0x7FL) != 0){
+                buf[len++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[len++] = (byte) v;
+        }
+    }
+
+    /* ---------------------- Command line ---------------------- */
+
+    /**
+     * Summarises a history file, reading only the OUTCOME column; "csv" dumps every round
+     * (cards and targets as ordinals).
+     *
+     *   java -cp <classes> RoundHistory <file> [csv]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0){
+            System.err.println("usage: RoundHistory <file> [csv]");
+            System.exit(2);
+        }
+        boolean csv = args.length > 1 && "csv".equalsIgnoreCase(args[1]);
+        gamePanel.ChosenType[] types = gamePanel.ChosenType.values();
+        long rounds = 0, wins = 0, net = 0, groups = 0;
+        long[] bytes = new long[COLUMNS.length];
+        try (Reader r = new Reader(Paths.get(args[0]))){
+            if (csv) System.out.println("timestamp,card,bet_type,target,amount_cents,multiplier,net_cents");
+            while (r.nextGroup()){
+                groups++;
+                for (Column c : COLUMNS) bytes[c.ordinal()] += r.compressedBytes(c);
+                long[] outcome = r.longs(Column.OUTCOME);
+                for (long v : outcome){ if (v > 0) wins++; net += v; }
+                rounds += r.rows();
+                if (!csv) continue;
+                int[] card = r.ints(Column.CARD), type = r.ints(Column.BET_TYPE), target = r.ints(Column.TARGET);
+                long[] amount = r.longs(Column.AMOUNT), time = r.longs(Column.TIMESTAMP);
+                double[] mult = r.doubles(Column.MULTIPLIER);
+                for (int i = 0; i < r.rows(); i++){
+                    System.out.println(time[i] + "," + card[i] + ","
+                            + types[type[i]] + "," + target[i] + "," + amount[i] + "," + mult[i] + "," + outcome[i]);
+                }
+            }
+        }
+        if (csv) return;
+        System.out.printf("%,d rounds in %,d groups, %,d wins, net %s%n", rounds, groups, wins, WalletLedger.format(net));
+        for (Column c : COLUMNS) System.out.printf("  %-10s %,12d bytes%n", c, bytes[c.ordinal()]);
+    }
+}
@@ -0,0 +1,276 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless round pipeline for tables without a UI: draw -> evaluate -> settle -> record -> notify.
+ *
+ * Rounds travel through one pre-allocated ring of Round slots (Disruptor style); nothing is
+ * allocated per round. Each stage runs on its own thread and owns a padded sequence counter.
+ * A stage may process every slot up to its upstream stage's sequence, and it takes the whole
+ * available range as one batch before publishing its own sequence once. The draw stage only
+ * waits when the ring is full, i.e. when the notify stage is a whole ring behind; up to that
+ * point a slow downstream stage just works through larger batches.
+ *
+ * The draw stage takes each stake with WalletLedger.debit before drawing; a round the player
+ * can't cover is drawn no card and skipped by every stage. Settle only credits the payout.
+ *
+ * If evaluate, settle or notify throws, that round is dropped by every later stage, the draw
+ * stage stops, and awaitCompletion() rethrows the error once the ring has drained. The record
+ * stage is only a journal: if it throws it is logged once and skipped from then on.
+ */
+public class RoundPipeline {
+
+    /** One headless table: its deck and a fixed bet. */
+    static final class Table {
+        final String player;
+        final gamePanel.Deck template;
+        final gamePanel.Deck deck = new gamePanel.Deck();
+        final gamePanel.ChosenType type;
+        final String rank;
+        final gamePanel.Suit suit;
+        final gamePanel.ColorType colour;
+        final long betCents;
+        final int target;   // as TableStore and RoundHistory encode it
+
+        Table(String player, gamePanel.Deck template, gamePanel.ChosenType type,
+              String rank, gamePanel.Suit suit, gamePanel.ColorType colour, long betCents){
+            this.player = player;
+            this.template = template;
+            this.type = type;
+            this.rank = rank;
+            this.suit = suit;
+            this.colour = colour;
+            this.betCents = betCents;
+            this.target = RoundHistory.target(type, rank, suit, colour);
+            deck.copyFrom(template);
+        }
+    }
+
+    /** A ring slot. Stages fill it in order; listeners must not keep a reference to it. */
+    static final class Round {
+        long sequence;
+        Table table;
+        gamePanel.Card card;
+        long drawnAtNanos;
+        long jackpotEpoch;      // the jackpot this card can win
+        PayoutConfig payouts;   // the snapshot this round was evaluated against
+        double multiplier;
+        boolean won;
+        long jackpotCents;
+        long payoutCents;
+        boolean live;           // false if the stake wasn't covered or a stage failed; later stages skip it
+    }
+
+    interface Stage { void onRound(Round r); }
+
+    private final Round[] ring;
+    private final int mask;
+    private final List<Table> tables;
+    private final Random rng;
+    private final Stage[] stages;          // evaluate, settle, record, notify
+    private static final int RECORD = 2;
+    private final Sequence cursor = new Sequence();  // last slot published by the draw stage
+    private final Sequence[] done;         // last slot finished by each downstream stage
+    private final List<Thread> threads = new ArrayList<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final JackpotPool jackpot = JackpotPool.shared();
+    private final WalletLedger ledger;     // may be null: no stakes taken or paid
+    private volatile boolean running = true;
+    private volatile long end = Long.MAX_VALUE;      // last sequence, once the draw stage has stopped
+    private volatile RuntimeException failure;       // first stage error; stops the run
+
+    /**
+     * @param ringSize power of two
+     * @param record   journal stage (may be null)
+     * @param notify   notification stage (may be null)
+     */
+    RoundPipeline(int ringSize, List<Table> tables, WalletLedger ledger, Stage record, Stage notify, long seed){
+        if (Integer.bitCount(ringSize) != 1) throw new IllegalArgumentException("ringSize must be a power of two");
+        if (tables.isEmpty()) throw new IllegalArgumentException("no tables");
+        ring = new Round[ringSize];
+        for (int i = 0; i < ringSize; i++) ring[i] = new Round();
+        mask = ringSize - 1;
+        this.tables = tables;
+        this.ledger = ledger;
+        rng = new Random(seed);
+
+        Stage evaluate = r -> {
+            Table t = r.table;
+            r.won = gamePanel.wins(r.card, t.type, t.rank, t.suit, t.colour);
+            r.payouts = PayoutConfig.current();
+            r.multiplier = r.payouts.forType(t.type);
+        };
+        Stage settle = r -> {
+            long stake = r.table.betCents;
+            jackpot.contribute(JackpotPool.contributionFor(stake, r.payouts));
+            r.jackpotCents = JackpotPool.isHit(r.table.type, r.won, r.card, r.payouts) ? jackpot.award(r.jackpotEpoch) : 0;
+            r.payoutCents = r.won ? stake + Math.round(stake * r.multiplier) + r.jackpotCents : 0;
+            if (ledger != null) ledger.credit(r.table.player, r.payoutCents); // the stake went at the draw
+        };
+        Stage notifyTimed = r -> {
+            if (notify != null) notify.onRound(r);
+            latency.record(System.nanoTime() - r.drawnAtNanos);
+        };
+        stages = new Stage[]{ evaluate, settle, record != null ? record : r -> { }, notifyTimed };
+        done = new Sequence[stages.length];
+        for (int i = 0; i < done.length; i++) done[i] = new Sequence();
+    }
+
+    // Starts all stage threads; the draw stage stops after the given number of rounds.
+    void start(long rounds){
+        String[] names = {"evaluate", "settle", "record", "notify"};
+        for (int i = 0; i < stages.length; i++){
+            final int k = i;
+            Sequence upstream = i == 0 ? cursor : done[i - 1];
+            threads.add(new Thread(() -> consume(k, upstream, done[k]), "round-" + names[i]));
+        }
+        threads.add(new Thread(() -> draw(rounds), "round-draw"));
+        for (Thread t : threads) t.start();
+    }
+
+    // Waits until every round has reached the notify stage; throws the stage error that stopped the run, if any.
+    void awaitCompletion() throws InterruptedException {
+        for (Thread t : threads) t.join();
+        if (failure != null) throw new IllegalStateException("round pipeline stopped", failure);
+    }
+
+    void stop(){ running = false; }
+
+    long completed(){ return done[done.length - 1].get() + 1; }
+
+    LatencyHistogram latencies(){ return latency; }
+
+    /* ---------------------- Stages ---------------------- */
+
+    private void draw(long target){
+        Sequence last = done[done.length - 1];
+        long next = 0;
+        int tableIndex = 0;
+        int idle = 0;
+        while (running && next < target){
+            // claim everything the ring has room for, up to the end of the run
+            long limit = Math.min(last.get() + ring.length, target - 1);
+            if (limit < next){
+                idle = backOff(idle);
+                continue;
+            }
+            idle = 0;
+            for (long seq = next; seq <= limit; seq++){
+                Round r = ring[(int) seq & mask];
+                Table t = tables.get(tableIndex);
+                if (++tableIndex == tables.size()) tableIndex = 0;
+                r.sequence = seq;
+                r.table = t;
+                r.live = ledger == null || ledger.debit(t.player, t.betCents);
+                if (!r.live){
+                    r.card = null;
+                    continue;
+                }
+                if (t.deck.size() == 0) t.deck.copyFrom(t.template);
+                r.card = t.deck.drawRandom(rng);
+                r.drawnAtNanos = System.nanoTime();
+                r.jackpotEpoch = jackpot.epoch();
+            }
+            cursor.set(limit);
+            next = limit + 1;
+        }
+        end = next - 1; // consumers finish at the last published slot
+    }
+
+    // The sequence keeps moving whatever the stage does, so nothing stalls behind a failure.
+    private void consume(int index, Sequence upstream, Sequence mine){
+        Stage stage = stages[index];
+        boolean journal = index == RECORD, journalFailed = false;
+        long next = 0;
+        int idle = 0;
+        while (next <= end){
+            long available = upstream.get();
+            if (available < next){
+                idle = backOff(idle);
+                continue;
+            }
+            idle = 0;
+            for (long seq = next; seq <= available; seq++){
+                Round r = ring[(int) seq & mask];
+                if (!r.live || journalFailed) continue;
+                try {
+                    stage.onRound(r);
+                } catch (RuntimeException ex){
+                    if (journal){
+                        journalFailed = true; // stop recording; the rounds themselves are fine
+                        ex.printStackTrace();
+                    } else {
+                        r.live = false;
+                        fail(ex);
+                    }
+                }
+            }
+            mine.set(available);
+            next = available + 1;
+        }
+    }
+
+    private synchronized void fail(RuntimeException ex){
+        if (failure != null) return;
+        failure = ex;
+        running = false;
+        ex.printStackTrace();
+    }
+
+    // spin, then yield, then park, so idle stages don't burn a core each
+    private static int backOff(int idle){
+        if (idle < 100) Thread.onSpinWait();
+        else if (idle < 200) Thread.yield();
+        else LockSupport.parkNanos(50_000);
+        return idle + 1;
+    }
+
+    /* ---------------------- Sequences ---------------------- */
+
+    // Cache-line padding on both sides keeps each stage's counter from false sharing.
+    static class LhsPadding { long p1, p2, p3, p4, p5, p6, p7; }
+    static class SequenceValue extends LhsPadding { volatile long value = -1; }
+    static final class Sequence extends SequenceValue {
+        long p9, p10, p11, p12, p13, p14, p15;
+        private static final VarHandle VALUE;
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+            } catch (ReflectiveOperationException e){
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+        long get(){ return value; }
+        void set(long v){ VALUE.setRelease(this, v); }
+    }
+
+    /* ---------------------- Latency ---------------------- */
+
+    // draw-to-notify latency in power-of-two nanosecond buckets; written only by the notify thread
+    static final class LatencyHistogram {
+        private final long[] buckets = new long[64];
+        private long count;
+
+        void record(long nanos){
+            buckets[63 - Long.numberOfLeadingZeros(Math.max(1, nanos))]++;
+            count++;
+        }
+
+        // upper bound of the bucket holding the given percentile
+        long percentileNanos(double pct){
+            long rank = (long) Math.ceil(count * pct / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++){
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) return 1L << (i + 1);
+            }
+            return 0;
+        }
+
+        long count(){ return count; }
+    }
+}
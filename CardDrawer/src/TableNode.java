@@ -0,0 +1,173 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Engine process hosting a shard of tables in a TableStore, driven by TableRouter over a
+ * line protocol on loopback. One request per line, one reply per line:
+ *
+ *   OPEN id type target betCents  -> OK
+ *   DRAW id                       -> CARD ordinal remaining   (a finished deck is refilled first)
+ *   SETTLE id                     -> PAYOUT cents             (the card DRAW gave; stake + winnings, 0 on a loss)
+ *   PEEK id                       -> TABLE record
+ *   EXPORT id                     -> TABLE record             (and the table leaves this node)
+ *   IMPORT id record              -> OK
+ *   STATS                         -> TABLES count
+ *   SHUTDOWN                      -> BYE
+ * Failures reply ERR message.
+ *
+ *   java -cp <classes> TableNode [port] [capacity]      (port 0 picks a free port)
+ * Prints "READY port" once it accepts connections. Payouts come from the same payout file as the
+ * game (-Dcarddrawer.payouts), reloaded whenever it changes.
+ */
+public class TableNode {
+
+    private final TableStore store;
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private int nextSlot = 0;
+    private final SplittableRandom rng = new SplittableRandom();
+    private volatile boolean running = true;
+
+    TableNode(int capacity){
+        store = new TableStore(capacity);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 20;
+        PayoutConfig.watchDefaultFile();
+        new TableNode(capacity).serve(port);
+    }
+
+    void serve(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 128, InetAddress.getLoopbackAddress())){
+            System.out.println("READY " + server.getLocalPort());
+            System.out.flush();
+            server.setSoTimeout(200);
+            while (running){
+                Socket s;
+                try {
+                    s = server.accept();
+                } catch (SocketTimeoutException ex){
+                    continue;
+                }
+                Thread t = new Thread(() -> session(s), "node-session");
+                t.setDaemon(true);
+                t.start();
+            }
+        }
+    }
+
+    private void session(Socket s){
+        try (Socket sock = s;
+             BufferedReader in = new BufferedReader(new InputStreamReader(sock.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(sock.getOutputStream(), StandardCharsets.UTF_8))){
+            sock.setTcpNoDelay(true);
+            String line;
+            while ((line = in.readLine()) != null){
+                String reply;
+                try {
+                    reply = handle(line.trim().split(" "));
+                } catch (RuntimeException ex){
+                    reply = "ERR " + ex.getMessage();
+                }
+                out.write(reply);
+                out.write('\n');
+                out.flush();
+                if ("BYE".equals(reply)) return;
+            }
+        } catch (IOException ex){
+            if (running) ex.printStackTrace();
+        }
+    }
+
+    // all table state changes go through here, one request at a time
+    synchronized String handle(String[] f){
+        switch (f[0]){
+            case "OPEN": {
+                need(f, 5);
+                if (slots.containsKey(f[1])) throw new IllegalStateException("table exists: " + f[1]);
+                int slot = allocate(f[1]);
+                store.open(slot, gamePanel.ChosenType.valueOf(f[2]), Integer.parseInt(f[3]), Integer.parseInt(f[4]));
+                return "OK";
+            }
+            case "DRAW": {
+                need(f, 2);
+                int slot = slot(f[1]);
+                if (store.remaining(slot) == 0) store.setDeckMask(slot, TableStore.FULL_DECK);
+                int card = store.drawRandom(slot, rng);
+                store.setDrawn(slot, card);
+                return "CARD " + card + " " + store.remaining(slot);
+            }
+            case "SETTLE": {
+                need(f, 2);
+                int slot = slot(f[1]);
+                int card = store.drawn(slot);
+                if (card < 0) throw new IllegalStateException("no card drawn on " + f[1]);
+                store.setDrawn(slot, -1); // each draw settles once
+                if (!store.wins(slot, card)) return "PAYOUT 0";
+                long stake = store.betCents(slot);
+                double multiplier = PayoutConfig.current().forType(store.betType(slot));
+                return "PAYOUT " + (stake + Math.round(stake * multiplier));
+            }
+            case "PEEK":
+                need(f, 2);
+                return "TABLE " + store.export(slot(f[1]));
+            case "EXPORT": {
+                need(f, 2);
+                int slot = slot(f[1]);
+                String record = store.export(slot);
+                store.close(slot);
+                slots.remove(f[1]);
+                freeSlots.push(slot);
+                return "TABLE " + record;
+            }
+            case "IMPORT": {
+                need(f, 3);
+                if (slots.containsKey(f[1])) throw new IllegalStateException("table exists: " + f[1]);
+                int slot = allocate(f[1]);
+                store.load(slot, f[2]);
+                return "OK";
+            }
+            case "STATS":
+                return "TABLES " + slots.size();
+            case "SHUTDOWN":
+                running = false;
+                return "BYE";
+            default:
+                throw new IllegalArgumentException("unknown command " + f[0]);
+        }
+    }
+
+    private int allocate(String id){
+        int slot;
+        if (!freeSlots.isEmpty()) slot = freeSlots.pop();
+        else if (nextSlot < store.capacity()) slot = nextSlot++;
+        else throw new IllegalStateException("node full");
+        slots.put(id, slot);
+        return slot;
+    }
+
+    private int slot(String id){
+        Integer slot = slots.get(id);
+        if (slot == null) throw new IllegalStateException("no table " + id);
+        return slot;
+    }
+
+    private static void need(String[] f, int n){
+        if (f.length != n) throw new IllegalArgumentException(f[0] + " expects " + (n - 1) + " arguments");
+    }
+}
@@ -0,0 +1,331 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thin router in front of several TableNode processes. Tables are placed on a consistent-hash
+ * ring (VIRTUAL_NODES points per node), so adding or removing a node only moves the tables
+ * whose ring segment changed owner.
+ *
+ * Draw/settle requests hold the read lock and go straight to the node holding the table over a
+ * small per-node connection pool. addNode/removeNode take the write lock, wait for in-flight
+ * requests to drain, and migrate each affected table (EXPORT from the old owner, IMPORT into
+ * the new one) with its deck and bet state before traffic resumes. If a migration fails the
+ * membership change is rolled back; requests follow `placement`, not the ring, so a table is
+ * always reached where it actually is.
+ */
+public class TableRouter implements AutoCloseable {
+
+    static final int VIRTUAL_NODES = 128;
+    static final int CONNECTIONS_PER_NODE = 8;
+    static final int CONNECT_TIMEOUT_MS = 2_000;
+    static final int REPLY_TIMEOUT_MS = 5_000;   // a hung node fails its callers instead of holding the read lock forever
+
+    private final TreeMap<Long, NodeClient> ring = new TreeMap<>();
+    private final Map<Integer, NodeClient> nodes = new ConcurrentHashMap<>();
+    private final Map<String, NodeClient> placement = new ConcurrentHashMap<>(); // table -> node holding it
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /* ---------------------- Table requests ---------------------- */
+
+    void open(String table, gamePanel.ChosenType type, int target, int betCents){
+        checkId(table);
+        lock.readLock().lock();
+        try {
+            NodeClient owner = ownerOf(table);
+            if (placement.putIfAbsent(table, owner) != null) throw new IllegalStateException("table exists: " + table);
+            try {
+                expect(owner.call("OPEN " + table + " " + type + " " + target + " " + betCents), "OK");
+            } catch (RuntimeException ex){
+                placement.remove(table, owner);
+                throw ex;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Returns the drawn card ordinal.
+    int draw(String table){
+        lock.readLock().lock();
+        try {
+            String reply = expect(holderOf(table).call("DRAW " + table), "CARD");
+            return Integer.parseInt(reply.split(" ")[1]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Settles the card the node last drew for the table; returns the payout in cents (stake + winnings, 0 on a loss).
+    long settle(String table){
+        lock.readLock().lock();
+        try {
+            return Long.parseLong(expect(holderOf(table).call("SETTLE " + table), "PAYOUT").split(" ")[1]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    String peek(String table){
+        lock.readLock().lock();
+        try {
+            return expect(holderOf(table).call("PEEK " + table), "TABLE").split(" ")[1];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int nodeOf(String table){
+        lock.readLock().lock();
+        try {
+            return holderOf(table).port;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ---------------------- Membership ---------------------- */
+
+    // Adds the node on loopback:port and moves over the tables it now owns; returns how many moved.
+    int addNode(int port){
+        lock.writeLock().lock();
+        try {
+            if (nodes.containsKey(port)) return 0;
+            NodeClient node = new NodeClient(port);
+            nodes.put(port, node);
+            for (long point : points(port)) ring.put(point, node);
+            try {
+                return rebalance();
+            } catch (RuntimeException ex){
+                // off the ring again, and move back whatever already reached it
+                for (long point : points(port)) ring.remove(point);
+                try {
+                    rebalance();
+                } catch (RuntimeException again){
+                    ex.addSuppressed(again);
+                } finally {
+                    if (!placement.containsValue(node)){
+                        nodes.remove(port);
+                        node.close();
+                    }
+                }
+                throw ex;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Moves every table off the node, then drops it from the ring; returns how many moved.
+    int removeNode(int port){
+        lock.writeLock().lock();
+        try {
+            NodeClient node = nodes.get(port);
+            if (node == null) return 0;
+            if (nodes.size() == 1 && !placement.isEmpty()) throw new IllegalStateException("cannot remove the last node");
+            for (long point : points(port)) ring.remove(point);
+            int moved;
+            try {
+                moved = rebalance();
+            } catch (RuntimeException ex){
+                // keep the node; tables that already left stay reachable through placement
+                for (long point : points(port)) ring.put(point, node);
+                throw ex;
+            }
+            nodes.remove(port);
+            node.close();
+            return moved;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // with the write lock held: move each table whose owner changed
+    private int rebalance(){
+        int moved = 0;
+        for (Map.Entry<String, NodeClient> e : placement.entrySet()){
+            String table = e.getKey();
+            NodeClient current = e.getValue();
+            NodeClient owner = ownerOf(table);
+            if (current == owner) continue;
+            String record = expect(current.call("EXPORT " + table), "TABLE").split(" ")[1];
+            try {
+                expect(owner.call("IMPORT " + table + " " + record), "OK");
+            } catch (RuntimeException ex){
+                current.call("IMPORT " + table + " " + record); // put it back where it was
+                throw ex;
+            }
+            e.setValue(owner);
+            moved++;
+        }
+        return moved;
+    }
+
+    List<Integer> nodePorts(){ return new ArrayList<>(nodes.keySet()); }
+
+    Set<String> tables(){ return placement.keySet(); }
+
+    @Override public void close(){
+        lock.writeLock().lock();
+        try {
+            for (NodeClient n : nodes.values()) n.close();
+            nodes.clear();
+            ring.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* ---------------------- Hashing ---------------------- */
+
+    // where the table is now; differs from ownerOf only while a failed migration is unresolved
+    private NodeClient holderOf(String table){
+        NodeClient n = placement.get(table);
+        return n != null ? n : ownerOf(table);
+    }
+
+    private NodeClient ownerOf(String table){
+        if (ring.isEmpty()) throw new IllegalStateException("no nodes");
+        Map.Entry<Long, NodeClient> e = ring.ceilingEntry(hash(table));
+        return (e != null ? e : ring.firstEntry()).getValue();
+    }
+
+    private static long[] points(int port){
+        long[] p = new long[VIRTUAL_NODES];
+        for (int i = 0; i < VIRTUAL_NODES; i++) p[i] = hash("node:" + port + "#" + i);
+        return p;
+    }
+
+    // FNV-1a with a splitmix64 finish, so similar ids spread over the whole ring
+    static long hash(String s){
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++){
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    private static void checkId(String table){
+        if (table.isEmpty() || table.contains(" ") || table.contains("\n")) throw new IllegalArgumentException("bad table id: " + table);
+    }
+
+    private static String expect(String reply, String prefix){
+        if (!reply.startsWith(prefix)) throw new IllegalStateException(reply);
+        return reply;
+    }
+
+    /* ---------------------- Node connections ---------------------- */
+
+    private static final class NodeClient {
+        final int port;
+        private final BlockingQueue<Connection> pool = new ArrayBlockingQueue<>(CONNECTIONS_PER_NODE);
+
+        NodeClient(int port){
+            this.port = port;
+            try {
+                for (int i = 0; i < CONNECTIONS_PER_NODE; i++) pool.add(new Connection(port));
+            } catch (RuntimeException ex){
+                close();
+                throw ex;
+            }
+        }
+
+        String call(String request){
+            Connection c;
+            try {
+                c = pool.take();
+            } catch (InterruptedException ex){
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted");
+            }
+            try {
+                return c.call(request);
+            } finally {
+                pool.add(c);
+            }
+        }
+
+        void close(){
+            for (Connection c : pool) c.close();
+        }
+    }
+
+    // One socket to a node. A failed or timed-out exchange closes it, since a late reply would
+    // answer the next request; the next call opens a fresh one.
+    private static final class Connection {
+        private final int port;
+        private Socket socket;
+        private BufferedReader in;
+        private Writer out;
+
+        Connection(int port){
+            this.port = port;
+            try {
+                connect();
+            } catch (IOException ex){
+                throw new UncheckedIOException("cannot reach node on port " + port, ex);
+            }
+        }
+
+        private void connect() throws IOException {
+            Socket s = new Socket();
+            try {
+                s.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT_MS);
+                s.setTcpNoDelay(true);
+                s.setSoTimeout(REPLY_TIMEOUT_MS);
+                in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8));
+            } catch (IOException ex){
+                s.close();
+                throw ex;
+            }
+            socket = s;
+        }
+
+        String call(String request){
+            try {
+                if (socket == null) connect();
+                out.write(request);
+                out.write('\n');
+                out.flush();
+                String reply = in.readLine();
+                if (reply == null) throw new IOException("node closed the connection");
+                return reply;
+            } catch (IOException ex){
+                close();
+                throw new UncheckedIOException("node on port " + port + ": " + ex.getMessage(), ex);
+            }
+        }
+
+        void close(){
+            if (socket == null) return;
+            try {
+                socket.close();
+            } catch (IOException ex){
+                // already gone
+            }
+            socket = null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.SplittableRandom;
+
+/**
+ * Compact off-heap state for very many tables: one 16-byte record per table in a single
+ * direct ByteBuffer, read and written through primitive accessors. The heap only holds this
+ * object, so GC work does not grow with the number of tables.
+ *
+ * Record layout (card ordinals as in DeckFilter: suit * 13 + rank index, A low):
+ *   0  long  deck mask   bit o set = card o still in the deck
+ *   8  int   bet in cents
+ *   12 byte  bet type    gamePanel.ChosenType ordinal, also the index of its multiplier in PayoutConfig
+ *   13 byte  target      INDIVIDUAL: card ordinal, SUIT: suit ordinal, COLOUR: ColorType ordinal
+ *   14 byte  flags       bit 0 = table in use
+ *   15 byte  drawn       ordinal of the card drawn and not yet settled, -1 if none
+ *
+ * Not synchronized: each table must have a single writer at a time (shard tables by thread).
+ */
+public class TableStore {
+
+    static final int RECORD_BYTES = 16;
+    static final long FULL_DECK = (1L << 52) - 1;
+
+    private static final int DECK = 0, BET = 8, TYPE = 12, TARGET = 13, FLAGS = 14, DRAWN = 15;
+    private static final gamePanel.ChosenType[] TYPES = gamePanel.ChosenType.values();
+
+    private final ByteBuffer buf;
+    private final int capacity;
+
+    TableStore(int capacity){
+        if (capacity <= 0 || (long) capacity * RECORD_BYTES > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        this.capacity = capacity;
+        buf = ByteBuffer.allocateDirect(capacity * RECORD_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    int capacity(){ return capacity; }
+
+    private static int at(int table){ return table * RECORD_BYTES; }
+
+    // Sets up a table with a full deck and the given bet.
+    void open(int table, gamePanel.ChosenType type, int target, int betCents){
+        int base = at(table);
+        buf.putLong(base + DECK, FULL_DECK);
+        buf.putInt(base + BET, betCents);
+        buf.put(base + TYPE, (byte) type.ordinal());
+        buf.put(base + TARGET, (byte) target);
+        buf.put(base + FLAGS, (byte) 1);
+        buf.put(base + DRAWN, (byte) -1);
+    }
+
+    void close(int table){ buf.put(at(table) + FLAGS, (byte) 0); }
+
+    boolean isOpen(int table){ return (buf.get(at(table) + FLAGS) & 1) != 0; }
+
+    long deckMask(int table){ return buf.getLong(at(table) + DECK); }
+    void setDeckMask(int table, long mask){ buf.putLong(at(table) + DECK, mask); }
+    int remaining(int table){ return Long.bitCount(deckMask(table)); }
+
+    int betCents(int table){ return buf.getInt(at(table) + BET); }
+    void setBetCents(int table, int cents){ buf.putInt(at(table) + BET, cents); }
+
+    gamePanel.ChosenType betType(int table){ return TYPES[buf.get(at(table) + TYPE)]; }
+    int target(int table){ return buf.get(at(table) + TARGET); }
+
+    int drawn(int table){ return buf.get(at(table) + DRAWN); }
+    void setDrawn(int table, int card){ buf.put(at(table) + DRAWN, (byte) card); }
+
+    // Removes and returns a uniformly chosen remaining card ordinal, or -1 if the deck is empty.
+    int drawRandom(int table, SplittableRandom rng){
+        long mask = deckMask(table);
+        int n = Long.bitCount(mask);
+        if (n == 0) return -1;
+        int card = select(mask, rng.nextInt(n));
+        setDeckMask(table, mask & ~(1L << card));
+        return card;
+    }
+
+    // position of the k-th (0-based) set bit
+    static int select(long mask, int k){
+        for (int i = 0; i < k; i++) mask &= mask - 1;
+        return Long.numberOfTrailingZeros(mask);
+    }
+
+    // Same rule as gamePanel.wins, on card ordinals.
+    boolean wins(int table, int card){
+        if (card < 0) return false;
+        int target = target(table);
+        int suit = card / 13, rank = card % 13;
+        switch (betType(table)){
+            case INDIVIDUAL: return card == target;
+            case SUIT: return suit == target;
+            case COLOUR: return (suit < 2 ? gamePanel.ColorType.RED : gamePanel.ColorType.BLACK).ordinal() == target;
+            default: return rank >= 10;
+        }
+    }
+
+    // Whole record as text, for moving a table to another node: mask,bet,type,target,flags,drawn
+    String export(int table){
+        int base = at(table);
+        return deckMask(table) + "," + betCents(table) + "," + buf.get(base + TYPE) + "," + buf.get(base + TARGET) + "," + buf.get(base + FLAGS)
+                + "," + buf.get(base + DRAWN);
+    }
+
+    void load(int table, String record){
+        String[] f = record.split(",");
+        if (f.length != 6) throw new IllegalArgumentException("bad table record: " + record);
+        int type = Integer.parseInt(f[2]);
+        if (type < 0 || type >= TYPES.length) throw new IllegalArgumentException("bad bet type in record: " + record);
+        int base = at(table);
+        buf.putLong(base + DECK, Long.parseLong(f[0]) & FULL_DECK);
+        buf.putInt(base + BET, Integer.parseInt(f[1]));
+        buf.put(base + TYPE, (byte) type);
+        buf.put(base + TARGET, Byte.parseByte(f[3]));
+        buf.put(base + FLAGS, Byte.parseByte(f[4]));
+        buf.put(base + DRAWN, Byte.parseByte(f[5]));
+    }
+}
@@ -0,0 +1,162 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Player balances in whole cents that persist across rounds and runs.
+ *
+ * Each wallet is a LongAdder, so any number of tables can credit the same player without
+ * contending on one counter; debits lock the one wallet so a check and a debit can't race
+ * another debit into overdraft. A new player starts with STARTING_BALANCE_CENTS.
+ *
+ * Updates only mark the ledger dirty; a background thread, started by the first update,
+ * writes all balances to disk in one batch every FLUSH_INTERVAL_MS, so settling a round never
+ * waits on I/O. The file is replaced atomically where the file system allows it and is
+ * flushed once more at JVM exit.
+ */
+public class WalletLedger {
+
+    static final long FLUSH_INTERVAL_MS = 500;
+    static final long STARTING_BALANCE_CENTS = 100_000; // $1,000 for a new player
+
+    private static WalletLedger shared;
+
+    private final Map<String, LongAdder> wallets = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private final AtomicBoolean flusherStarted = new AtomicBoolean(false);
+    private final Path file;
+    private volatile boolean atomicMoves = true; // false once the file system has refused one
+
+    WalletLedger(Path file){
+        this.file = file;
+        load();
+    }
+
+    // Started by the first update, so an untouched ledger costs no thread at startup.
+    private void startFlusher(){
+        if (flusherStarted.get() || !flusherStarted.compareAndSet(false, true)) return;
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "wallet-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushIfDirty, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushIfDirty, "wallet-flush-exit"));
+    }
+
+    // The ledger every table in this JVM shares (-Dcarddrawer.wallets overrides the file).
+    static synchronized WalletLedger shared(){
+        if (shared == null){
+            String path = System.getProperty("carddrawer.wallets",
+                    Paths.get(System.getProperty("user.home"), ".carddrawer", "wallets.properties").toString());
+            shared = new WalletLedger(Paths.get(path));
+        }
+        return shared;
+    }
+
+    long balance(String player){
+        LongAdder w = wallets.get(player);
+        return w == null ? STARTING_BALANCE_CENTS : w.sum();
+    }
+
+    // Takes cents from the wallet; false, and nothing taken, if the balance can't cover it.
+    boolean debit(String player, long cents){
+        LongAdder w = wallet(player);
+        synchronized (w){ // credits only raise the balance, so only debits need to queue here
+            if (w.sum() < cents) return false;
+            w.add(-cents);
+        }
+        changed();
+        return true;
+    }
+
+    // Adds cents, e.g. a payout; stakes and other charges go through debit().
+    void credit(String player, long cents){
+        if (cents < 0) throw new IllegalArgumentException("negative credit " + cents + "; use debit");
+        if (cents == 0) return;
+        wallet(player).add(cents);
+        changed();
+    }
+
+    private LongAdder wallet(String player){
+        return wallets.computeIfAbsent(player, k -> {
+            LongAdder w = new LongAdder();
+            w.add(STARTING_BALANCE_CENTS);
+            return w;
+        });
+    }
+
+    private void changed(){
+        dirty.set(true);
+        startFlusher();
+    }
+
+    private void flushIfDirty(){
+        if (dirty.getAndSet(false)){
+            try {
+                flush();
+            } catch (IOException ex){
+                dirty.set(true); // retry on the next tick
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    synchronized void flush() throws IOException {
+        Properties props = new Properties();
+        for (Map.Entry<String, LongAdder> e : wallets.entrySet()) props.setProperty(e.getKey(), Long.toString(e.getValue().sum()));
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)){
+            props.store(out, "CardDrawer wallet balances in cents");
+        }
+        if (atomicMoves){
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return;
+            } catch (AtomicMoveNotSupportedException ex){
+                atomicMoves = false; // say so once, then replace plainly from now on
+                System.err.println("Wallet file " + file + " can't be replaced atomically here; using a plain replace");
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void load(){
+        if (!Files.exists(file)) return;
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(file)){
+            props.load(in);
+        } catch (IOException ex){
+            ex.printStackTrace();
+            return;
+        }
+        for (String player : props.stringPropertyNames()){
+            try {
+                LongAdder w = new LongAdder();
+                w.add(Long.parseLong(props.getProperty(player).trim()));
+                wallets.put(player, w);
+            } catch (NumberFormatException ex){
+                System.err.println("Ignoring bad wallet entry for " + player);
+            }
+        }
+    }
+
+    static String format(long cents){
+        return String.format("%s$%d.%02d", cents < 0 ? "-" : "", Math.abs(cents) / 100, Math.abs(cents) % 100);
+    }
+}
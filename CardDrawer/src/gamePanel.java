@@ -7,7 +7,11 @@ import java.awt.geom.RoundRectangle2D;
 import java.awt.event.*;
 import java.util.*;
 import java.util.List;
+import java.util.function.Supplier;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 
 /**
  * gamePanel - updated so the remaining-cards list appears ONLY on the left panel.
@@ -19,20 +23,46 @@ public class gamePanel extends JPanel {
     private State currentState = State.SETUP;
 
     // Card/type model
-    private enum Suit { HEARTS("♥"), DIAMONDS("♦"), CLUBS("♣"), SPADES("♠");
+    enum Suit { HEARTS("♥"), DIAMONDS("♦"), CLUBS("♣"), SPADES("♠");
         final String glyph; Suit(String g){ glyph = g; }
         public String glyph(){ return glyph; }
     }
-    private enum ColorType { RED, BLACK }
+    enum ColorType { RED, BLACK }
     private static final String[] RANKS = {"A","2","3","4","5","6","7","8","9","10","J","Q","K"};
 
-    private static class Card {
+    static class Card {
+        // jokers follow the 52 standard cards; they have no suit and only win COLOUR bets
+        static final int RED_JOKER = 52, BLACK_JOKER = 53, ORDINALS = 54;
+        static final String JOKER = "JOKER";
+
         final String rank;
-        final Suit suit;
-        Card(String rank, Suit suit){ this.rank = rank; this.suit = suit; }
+        final Suit suit; // null for jokers
+        // suit * 13 + rank index; the card identity used by DeckHistory and DeckFilter
+        private final int ordinal;
+        Card(String rank, Suit suit){
+            this.rank = rank; this.suit = suit;
+            this.ordinal = suit.ordinal() * RANKS.length + Arrays.asList(RANKS).indexOf(rank);
+        }
+        private Card(int jokerOrdinal){
+            this.rank = JOKER; this.suit = null; this.ordinal = jokerOrdinal;
+        }
+        int ordinal(){ return ordinal; }
+        static Card ofOrdinal(int ordinal){
+            if (ordinal >= RED_JOKER) return new Card(ordinal);
+            return new Card(RANKS[ordinal % RANKS.length], Suit.values()[ordinal / RANKS.length]);
+        }
+        static Card joker(ColorType color){ return new Card(color == ColorType.RED ? RED_JOKER : BLACK_JOKER); }
+        boolean isJoker(){ return suit == null; }
         boolean isFace(){ return "J".equals(rank) || "Q".equals(rank) || "K".equals(rank); }
-        ColorType color(){ return (suit == Suit.HEARTS || suit == Suit.DIAMONDS) ? ColorType.RED : ColorType.BLACK; }
-        @Override public String toString(){ return rank + suit.glyph(); }
+        ColorType color(){
+            if (isJoker()) return ordinal == RED_JOKER ? ColorType.RED : ColorType.BLACK;
+            return (suit == Suit.HEARTS || suit == Suit.DIAMONDS) ? ColorType.RED : ColorType.BLACK;
+        }
+        String glyph(){ return isJoker() ? "★" : suit.glyph(); }
+        @Override public String toString(){
+            if (isJoker()) return (ordinal == RED_JOKER ? "Red " : "Black ") + "Joker";
+            return rank + suit.glyph();
+        }
     }
 
     // Helper to create multiplier input fields (class-level method)
@@ -46,20 +76,44 @@ public class gamePanel extends JPanel {
         return f;
     }
 
-    private static class Deck {
+    static class Deck {
         private final List<Card> cards = new ArrayList<>();
-        Deck(){ resetToFull(); }
+
+        // Per-ordinal draw weights (1 = normal). While every weight is 1 a draw is a plain
+        // uniform pick; otherwise it goes through an alias table over the cards present when
+        // the table was built. Cards drawn since then are rejected and redrawn, and the table
+        // is rebuilt lazily once they hold half its weight, or after any other deck change.
+        private final double[] weights = new double[Card.ORDINALS];
+        private boolean weighted = false;
+        private AliasSampler sampler;   // null when stale
+        private long live;              // cards of the sampler's table still in the deck
+        private double liveWeight;
+
+        Deck(){
+            Arrays.fill(weights, 1.0);
+            resetToFull();
+        }
         void resetToFull(){
             cards.clear();
             for (Suit s : Suit.values()){
                 for (String r : RANKS) cards.add(new Card(r,s));
             }
+            sampler = null;
+        }
+        void clear(){ cards.clear(); sampler = null; }
+        // same cards in the same order as other (no new Card objects), and the same weights
+        void copyFrom(Deck other){
+            cards.clear();
+            cards.addAll(other.cards);
+            System.arraycopy(other.weights, 0, weights, 0, weights.length);
+            weighted = other.weighted;
+            sampler = null;
         }
-        void clear(){ cards.clear(); }
         int size(){ return cards.size(); }
         List<Card> asList(){ return Collections.unmodifiableList(cards); }
-        void removeSuit(Suit suit){ cards.removeIf(c -> c.suit == suit); }
+        void removeSuit(Suit suit){ cards.removeIf(c -> c.suit == suit); sampler = null; }
         void addSuit(Suit suit){
+            sampler = null;
             for (String r : RANKS){
                 Card c = new Card(r,suit);
                 boolean exists = false;
@@ -67,7 +121,7 @@ public class gamePanel extends JPanel {
                 if (!exists) cards.add(c);
             }
         }
-        void removeColor(ColorType color){ cards.removeIf(c -> c.color() == color); }
+        void removeColor(ColorType color){ cards.removeIf(c -> c.color() == color); sampler = null; }
         void addColor(ColorType color){
             for (Suit s : Suit.values()){
                 if ((color == ColorType.RED && (s==Suit.HEARTS || s==Suit.DIAMONDS)) ||
@@ -76,8 +130,23 @@ public class gamePanel extends JPanel {
                 }
             }
         }
-        void removeFaces(){ cards.removeIf(Card::isFace); }
+        void removeFaces(){ cards.removeIf(Card::isFace); sampler = null; }
+        // single pass for a compiled DeckFilter
+        boolean retain(DeckFilter filter){ sampler = null; return cards.removeIf(c -> !filter.keeps(c.ordinal())); }
+        void addJokers(){
+            for (ColorType color : ColorType.values()){
+                Card j = Card.joker(color);
+                if (!containsOrdinal(j.ordinal())) cards.add(j);
+            }
+            sampler = null;
+        }
+        void removeJokers(){ cards.removeIf(Card::isJoker); sampler = null; }
+        boolean containsOrdinal(int ordinal){
+            for (Card c : cards) if (c.ordinal() == ordinal) return true;
+            return false;
+        }
         void addFaces(){
+            sampler = null;
             for (Suit s : Suit.values()){
                 for (String r : new String[]{"J","Q","K"}){
                     boolean exists = false;
@@ -88,10 +157,59 @@ public class gamePanel extends JPanel {
         }
         Card drawRandom(Random rng){
             if (cards.isEmpty()) return null;
+            if (weighted) return drawWeighted(rng);
             int idx = rng.nextInt(cards.size());
             return cards.remove(idx);
         }
+        private Card drawWeighted(Random rng){
+            if (sampler == null || liveWeight < sampler.totalWeight() / 2) buildSampler();
+            while (true){
+                int o = sampler.sample(rng);
+                if ((live & (1L << o)) == 0) continue; // drawn since the table was built
+                live &= ~(1L << o);
+                liveWeight -= weights[o];
+                for (int i = 0; i < cards.size(); i++) if (cards.get(i).ordinal() == o) return cards.remove(i);
+            }
+        }
+        private void buildSampler(){
+            double[] w = new double[Card.ORDINALS];
+            live = 0L;
+            liveWeight = 0;
+            for (Card c : cards){
+                int o = c.ordinal();
+                w[o] = weights[o];
+                live |= 1L << o;
+                liveWeight += weights[o];
+            }
+            sampler = AliasSampler.of(w);
+        }
+        double weight(int ordinal){ return weights[ordinal]; }
+        boolean isWeighted(){ return weighted; }
+        // weights are positive so every card in the deck stays drawable
+        void setWeight(int ordinal, double w){
+            if (!(w > 0) || w > 1000) throw new IllegalArgumentException("Weight must be above 0 and at most 1000.");
+            weights[ordinal] = w;
+            weighted = false;
+            for (double x : weights) if (x != 1.0) { weighted = true; break; }
+            sampler = null;
+        }
+        void resetWeights(){
+            Arrays.fill(weights, 1.0);
+            weighted = false;
+            sampler = null;
+        }
+        // chance that the next draw satisfies the predicate, under the current weights
+        double probability(java.util.function.Predicate<Card> p){
+            double hit = 0, total = 0;
+            for (Card c : cards){
+                double w = weights[c.ordinal()];
+                total += w;
+                if (p.test(c)) hit += w;
+            }
+            return total == 0 ? 0 : hit / total;
+        }
         boolean removeCard(String rank, Suit suit){
+            sampler = null;
             return cards.removeIf(c -> c.rank.equals(rank) && c.suit == suit);
         }
         boolean contains(String rank, Suit suit){
@@ -100,6 +218,7 @@ public class gamePanel extends JPanel {
         }
         // add single card safely
         void addCard(String rank, Suit suit){
+            sampler = null;
             boolean exists = false;
             for (Card c : cards) if (c.rank.equals(rank) && c.suit == suit) { exists = true; break; }
             if (!exists) cards.add(new Card(rank, suit));
@@ -108,11 +227,29 @@ public class gamePanel extends JPanel {
         void shuffle(Random rng){
             Collections.shuffle(cards, rng);
         }
+        DeckHistory.Version snapshot(DeckHistory.Version prev){
+            int[] ords = new int[cards.size()];
+            for (int i = 0; i < ords.length; i++) ords[i] = cards.get(i).ordinal();
+            return DeckHistory.Version.of(prev, ords);
+        }
+        void restore(DeckHistory.Version v){
+            sampler = null;
+            cards.clear();
+            for (int o : v.ordinals()) cards.add(Card.ofOrdinal(o));
+        }
     }
 
     // Chosen bet & type
-    private enum ChosenType { INDIVIDUAL, SUIT, COLOUR, FACE }
+    enum ChosenType { INDIVIDUAL, SUIT, COLOUR, FACE }
     private int betAmount = 0;
+    private String playerName = "Player 1";
+    private boolean roundOpen = false; // bet debited, not yet settled
+    private final WalletLedger wallets = WalletLedger.shared();
+    private final JackpotPool jackpotPool = JackpotPool.shared();
+    private long jackpotEpoch = 0; // the jackpot lastDrawn can win
+    private long lastJackpotCents = 0; // won by the round settleBet() last settled
+    private long sessionRounds = 0, sessionWins = 0, sessionNetCents = 0;
+    private boolean historyFailed = false; // RoundHistory write failed; stop recording
     private ChosenType chosenType = ChosenType.INDIVIDUAL;
     private String chosenRank = "A";
     private Suit chosenSuit = Suit.SPADES;
@@ -121,16 +258,32 @@ public class gamePanel extends JPanel {
     private final Random rng = new Random();
     private Card lastDrawn = null;
 
-    // Multipliers (editable in settings)
-    private double mulIndividual = 4.0;
-    private double mulSuit = 3.0;
-    private double mulColour = 2.0;
-    private double mulFace = 2.0;
+    // Draws, deck changes, bets and settlements go out as events; the UI, stats and log subscribe
+    private final GameEventBus events = new GameEventBus();
+    private final JLabel sessionLabel = new JLabel();
+    private final GameEventBus.SessionStats stats = new GameEventBus.SessionStats(() -> sessionLabel.setText(this.stats.summary()));
+
+    // Auto-play runs rounds on its own thread; a Swing timer shows its latest stats once per frame
+    private static final String[] AUTO_RATES = {"10 / s", "100 / s", "1,000 / s", "10,000 / s", "Unthrottled"};
+    private static final int[] AUTO_RATE_VALUES = {10, 100, 1_000, 10_000, 0};
+    private AutoPlay autoPlay = null;
+    private AutoPlay.Stats autoShown = null;
+    private int autoRateIndex = 1;
+    private final javax.swing.Timer autoTimer = new javax.swing.Timer(1000 / 60, e -> showAutoStats());
+    private final JLabel autoLabel = new JLabel(" ");
+    private JButton autoButton = new JButton("Auto-play");
+
+    // Undo/redo of Deck tab edits; deckVersion mirrors the deck while history is valid
+    private final DeckHistory history = new DeckHistory();
+    private DeckHistory.Version deckVersion = null;
 
     // Swing components
     private final CardComponent cardComponent = new CardComponent();
     private JLabel deckCountLabel = new JLabel();
+    private final JLabel evLabel = new JLabel();
     private JButton drawButton = new JButton("Draw");
+    private JButton undoButton = new JButton("Undo");
+    private JButton redoButton = new JButton("Redo");
     private JLabel topInfoLabel = new JLabel();
     private JPanel centerPanel = new JPanel(new BorderLayout());
 
@@ -147,22 +300,38 @@ public class gamePanel extends JPanel {
         setBackground(panelBg);
         setPreferredSize(new Dimension(1200, 820));
         updateGlobalFont(new Font("Segoe UI", Font.PLAIN, 14));
+        events.subscribe(new UiListener(), SwingUtilities::invokeLater);
+        events.subscribe(stats, SwingUtilities::invokeLater);
+        events.subscribe(new GameEventBus.EventLog());
         setupGame();
     }
 
+    // Only the defaults our components actually read (one per UI class in the setup and play
+    // screens, combo popups and dialogs included); walking every UIManager key resolves all
+    // lazy L&F values and dominated cold start. Add a key here with any new kind of component.
+    private static final String[] FONT_KEYS = {
+        "Label.font", "Button.font", "ComboBox.font", "PopupMenu.font", "TextField.font", "List.font",
+        "TabbedPane.font", "ScrollPane.font", "Viewport.font", "Panel.font", "ToolTip.font",
+        "OptionPane.font", "OptionPane.messageFont", "OptionPane.buttonFont"
+    };
+    private static boolean globalFontApplied = false;
+
     private void updateGlobalFont(Font f){
-        Enumeration<Object> keys = UIManager.getDefaults().keys();
-        while(keys.hasMoreElements()){
-            Object k = keys.nextElement();
-            Object v = UIManager.get(k);
-            if (v instanceof Font) UIManager.put(k, f);
-        }
+        if (globalFontApplied) return;
+        for (String k : FONT_KEYS) UIManager.put(k, f);
+        globalFontApplied = true;
     }
 
+    // Runs once, after the first paint of this panel has gone out (startup benchmark hook)
+    private Runnable firstFrameHook = null;
+    private boolean firstFramePainted = false;
+    public void onFirstFrame(Runnable r){ firstFrameHook = r; }
+
     /* ---------------------- Setup screen UI ---------------------- */
     public void setupGame(){
         removeAll();
         deck.resetToFull();
+        clearDeckHistory();
         lastDrawn = null;
         currentState = State.SETUP;
         setUpSetupScreen();
@@ -197,8 +366,17 @@ public class gamePanel extends JPanel {
         c.insets = new Insets(8,10,8,10);
         c.anchor = GridBagConstraints.WEST;
 
-        // Bet
+        // Player
         c.gridx = 0; c.gridy = 0;
+        JLabel playerLbl = new JLabel("Player: ");
+        playerLbl.setForeground(Color.WHITE);
+        inputs.add(playerLbl, c);
+        c.gridx = 1;
+        JTextField playerField = stylizeField(new JTextField(playerName, 10));
+        inputs.add(playerField, c);
+
+        // Bet
+        c.gridx = 0; c.gridy = 1;
         JLabel betLbl = new JLabel("Bet (integer): ");
         betLbl.setForeground(Color.WHITE);
         inputs.add(betLbl, c);
@@ -207,7 +385,7 @@ public class gamePanel extends JPanel {
         inputs.add(betField, c);
 
         // Type
-        c.gridx = 0; c.gridy = 1;
+        c.gridx = 0; c.gridy = 2;
         JLabel pickLbl = new JLabel("Pick type: ");
         pickLbl.setForeground(Color.WHITE);
         inputs.add(pickLbl, c);
@@ -217,7 +395,7 @@ public class gamePanel extends JPanel {
         inputs.add(typeBox, c);
 
         // Subchoice area
-        c.gridx = 0; c.gridy = 2; c.gridwidth = 2;
+        c.gridx = 0; c.gridy = 3; c.gridwidth = 2;
         JPanel subChoicePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
         subChoicePanel.setOpaque(false);
         inputs.add(subChoicePanel, c);
@@ -260,6 +438,7 @@ public class gamePanel extends JPanel {
 
         resetBtn.addActionListener(e -> {
             deck.resetToFull();
+            clearDeckHistory();
             updateDeckList();
             JOptionPane.showMessageDialog(this, "Deck reset to full 52 cards.", "Deck Reset", JOptionPane.INFORMATION_MESSAGE);
         });
@@ -268,6 +447,12 @@ public class gamePanel extends JPanel {
             try {
                 int bet = Integer.parseInt(betField.getText().trim());
                 if (bet <= 0) throw new NumberFormatException();
+                String player = playerField.getText().trim();
+                if (player.isEmpty()){
+                    JOptionPane.showMessageDialog(this, "Please enter a player name.", "Invalid input", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                playerName = player;
                 betAmount = bet;
                 String sel = (String) typeBox.getSelectedItem();
                 if ("Individual card".equals(sel)){
@@ -283,7 +468,7 @@ public class gamePanel extends JPanel {
                 } else {
                     chosenType = ChosenType.FACE;
                 }
-                enterPlayState();
+                if (placeBet()) enterPlayState();
             } catch (NumberFormatException ex){
                 JOptionPane.showMessageDialog(this, "Please enter a valid positive integer bet.", "Invalid input", JOptionPane.ERROR_MESSAGE);
             }
@@ -324,7 +509,23 @@ public class gamePanel extends JPanel {
         JButton endButton = stylizeButton("End Game");
         JButton shuffleBtn = stylizeButton("Shuffle");
         bottomBar.add(drawButton); bottomBar.add(endButton); bottomBar.add(shuffleBtn);
-        centerWrapper.add(bottomBar, BorderLayout.SOUTH);
+
+        JPanel autoBar = new JPanel(new FlowLayout(FlowLayout.CENTER, 12, 4));
+        autoBar.setOpaque(false);
+        autoButton = stylizeButton("Auto-play");
+        JComboBox<String> rateBox = stylizeCombo(new JComboBox<>(AUTO_RATES));
+        rateBox.setSelectedIndex(autoRateIndex);
+        autoLabel.setForeground(new Color(180,190,200));
+        autoBar.add(autoButton); autoBar.add(rateBox);
+        autoLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        JPanel bottom = new JPanel();
+        bottom.setOpaque(false);
+        bottom.setLayout(new BoxLayout(bottom, BoxLayout.Y_AXIS));
+        bottom.add(bottomBar);
+        bottom.add(autoBar);
+        bottom.add(autoLabel);
+        centerWrapper.add(bottom, BorderLayout.SOUTH);
 
         centerPanel.add(centerWrapper, BorderLayout.CENTER);
 
@@ -336,7 +537,93 @@ public class gamePanel extends JPanel {
         tabs.setForeground(Color.WHITE);
         tabs.setPreferredSize(new Dimension(300, 0)); // smaller width
 
-        // Deck controls tab
+        // Deck is the tab on show, so it's built with the screen; Settings waits for its first selection
+        tabs.addTab("Deck", buildDeckTab(rightBg));
+        addLazyTab(tabs, "Settings", () -> buildSettingsTab(rightBg));
+        tabs.addChangeListener(e -> buildLazyTab(tabs, tabs.getSelectedIndex()));
+
+        // Left: Remaining cards panel (live-updating) - only here
+        JPanel leftInfo = new RoundedPanel(new Color(40,46,54), 12);
+        leftInfo.setOpaque(false);
+        leftInfo.setLayout(new BorderLayout());
+        leftInfo.setBorder(new EmptyBorder(12,12,12,12));
+        leftInfo.setPreferredSize(new Dimension(220, 0));
+
+        JLabel leftTitle = new JLabel("Remaining Cards");
+        leftTitle.setForeground(Color.WHITE);
+        leftTitle.setBorder(new EmptyBorder(6,6,6,6));
+        leftInfo.add(leftTitle, BorderLayout.NORTH);
+
+        // configure deckList appearance
+        deckList.setForeground(Color.WHITE);
+        deckList.setBackground(new Color(30,34,40));
+        deckList.setSelectionBackground(new Color(70,80,95));
+        deckList.setFont(deckList.getFont().deriveFont(12f));
+
+        JScrollPane leftScroll = new JScrollPane(deckList);
+        leftScroll.setBorder(BorderFactory.createLineBorder(new Color(60,60,60)));
+        leftScroll.setPreferredSize(new Dimension(200, 400));
+        leftInfo.add(leftScroll, BorderLayout.CENTER);
+
+        // Layout main content
+        JPanel content = new JPanel(new BorderLayout(12,12));
+        content.setOpaque(false);
+        content.add(centerPanel, BorderLayout.CENTER);
+        content.add(tabs, BorderLayout.EAST);    // smaller & darker
+        content.add(leftInfo, BorderLayout.WEST);
+
+        add(content, BorderLayout.CENTER);
+
+        // Hook up actions
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK), "undoDeck", this::undoDeckEdit);
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK), "redoDeck", this::redoDeckEdit);
+
+        drawButton.addActionListener(e -> {
+            Card c = deck.drawRandom(rng);
+            lastDrawn = c;
+            jackpotEpoch = jackpotPool.epoch();
+            clearDeckHistory();
+            if (c == null){
+                updateDeckStatus();
+                cardComponent.setCard(null);
+                JOptionPane.showMessageDialog(this, "Deck is empty. Reset or add cards.", "Empty Deck", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            if (deck.size() == 0) drawButton.setEnabled(false);
+            events.publish(new GameEventBus.CardDrawn(c, deck.size()));
+        });
+
+        autoButton.addActionListener(e -> {
+            if (autoPlay == null) startAutoPlay();
+            else stopAutoPlay();
+        });
+        rateBox.addActionListener(e -> {
+            autoRateIndex = rateBox.getSelectedIndex();
+            if (autoPlay != null) autoPlay.setRate(AUTO_RATE_VALUES[autoRateIndex]);
+        });
+
+        // shuffle action
+        shuffleBtn.addActionListener(ev -> {
+            if (deckBusy()) return;
+            deck.shuffle(rng);
+            clearDeckHistory();
+            updateDeckStatus();
+            updateDeckList();
+            events.publish(new GameEventBus.DeckMutated("shuffled", deck.size()));
+            JOptionPane.showMessageDialog(this, "Deck shuffled.", "Shuffle", JOptionPane.INFORMATION_MESSAGE);
+        });
+
+        endButton.addActionListener(e -> { stopAutoPlay(); enterResultState(); });
+
+        updateDeckStatus();
+        updateDeckList();
+        cardComponent.setCard(lastDrawn);
+        revalidate();
+        repaint();
+    }
+
+    /* ---------------------- Deck controls tab ---------------------- */
+    private JPanel buildDeckTab(Color rightBg){
         JPanel deckTab = new JPanel();
         deckTab.setOpaque(true);
         deckTab.setBackground(rightBg);
@@ -368,8 +655,7 @@ public class gamePanel extends JPanel {
 
         removeSuitBtn.addActionListener(e -> {
             Suit s = Suit.valueOf((String) removeSuitBox.getSelectedItem());
-            deck.removeSuit(s);
-            updateDeckStatus();
+            editDeck(() -> deck.removeSuit(s));
         });
 
         // add suit
@@ -385,8 +671,7 @@ public class gamePanel extends JPanel {
         deckTab.add(addSuitPanel);
         addSuitBtn.addActionListener(e -> {
             Suit s = Suit.valueOf((String) addSuitBox.getSelectedItem());
-            deck.addSuit(s);
-            updateDeckStatus();
+            editDeck(() -> deck.addSuit(s));
         });
 
         deckTab.add(Box.createVerticalStrut(8));
@@ -403,8 +688,7 @@ public class gamePanel extends JPanel {
         deckTab.add(removeColPanel);
         removeColBtn.addActionListener(e -> {
             ColorType color = ColorType.valueOf((String) removeColBox.getSelectedItem());
-            deck.removeColor(color);
-            updateDeckStatus();
+            editDeck(() -> deck.removeColor(color));
         });
 
         // Add color
@@ -420,8 +704,7 @@ public class gamePanel extends JPanel {
         deckTab.add(addColPanel);
         addColBtn.addActionListener(e -> {
             ColorType color = ColorType.valueOf((String) addColBox.getSelectedItem());
-            deck.addColor(color);
-            updateDeckStatus();
+            editDeck(() -> deck.addColor(color));
         });
 
         deckTab.add(Box.createVerticalStrut(8));
@@ -435,8 +718,8 @@ public class gamePanel extends JPanel {
         JButton addFacesBtn = stylizeButtonSmall("Add Faces");
         facesPanel.add(removeFacesBtn); facesPanel.add(addFacesBtn);
         deckTab.add(facesPanel);
-        removeFacesBtn.addActionListener(e -> { deck.removeFaces(); updateDeckStatus(); });
-        addFacesBtn.addActionListener(e -> { deck.addFaces(); updateDeckStatus(); });
+        removeFacesBtn.addActionListener(e -> editDeck(deck::removeFaces));
+        addFacesBtn.addActionListener(e -> editDeck(deck::addFaces));
 
         deckTab.add(Box.createVerticalStrut(10));
         JLabel lbl6 = new JLabel("Remove/Add specific card:");
@@ -455,32 +738,116 @@ public class gamePanel extends JPanel {
         removeSpecific.addActionListener(e -> {
             String r = (String) specificRank.getSelectedItem();
             Suit s = Suit.valueOf((String) specificSuit.getSelectedItem());
-            boolean changed = deck.removeCard(r,s);
-            updateDeckStatus();
+            boolean changed = editDeck(() -> deck.removeCard(r,s));
             JOptionPane.showMessageDialog(this, changed ? "Card removed." : "That card was not in the deck.", "Specific Remove", JOptionPane.INFORMATION_MESSAGE);
         });
         addSpecific.addActionListener(e -> {
             String r = (String) specificRank.getSelectedItem();
             Suit s = Suit.valueOf((String) specificSuit.getSelectedItem());
             if (!deck.contains(r,s)){
-                deck.addCard(r,s);
-                updateDeckStatus();
+                editDeck(() -> deck.addCard(r,s));
                 JOptionPane.showMessageDialog(this, "Card added.", "Specific Add", JOptionPane.INFORMATION_MESSAGE);
             } else {
                 JOptionPane.showMessageDialog(this, "That card already exists in the deck.", "Specific Add", JOptionPane.INFORMATION_MESSAGE);
             }
         });
 
+        deckTab.add(Box.createVerticalStrut(10));
+        JLabel lbl7 = new JLabel("Filter (e.g. remove red & rank<=5):");
+        lbl7.setForeground(Color.WHITE);
+        deckTab.add(lbl7);
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.setOpaque(false);
+        JTextField filterField = stylizeField(new JTextField(14));
+        JButton applyFilter = stylizeButtonSmall("Apply");
+        filterPanel.add(filterField); filterPanel.add(applyFilter);
+        deckTab.add(filterPanel);
+        ActionListener filterAction = e -> {
+            try {
+                DeckFilter f = DeckFilter.compile(filterField.getText());
+                editDeck(() -> deck.retain(f));
+            } catch (IllegalArgumentException ex){
+                JOptionPane.showMessageDialog(this, "Invalid filter: " + ex.getMessage(), "Filter", JOptionPane.ERROR_MESSAGE);
+            }
+        };
+        applyFilter.addActionListener(filterAction);
+        filterField.addActionListener(filterAction);
+
+        deckTab.add(Box.createVerticalStrut(10));
+        JLabel lbl8 = new JLabel("Jokers & draw weights:");
+        lbl8.setForeground(Color.WHITE);
+        deckTab.add(lbl8);
+        JPanel jokerPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        jokerPanel.setOpaque(false);
+        JButton addJokers = stylizeButtonSmall("Add Jokers");
+        JButton removeJokers = stylizeButtonSmall("Remove Jokers");
+        jokerPanel.add(addJokers); jokerPanel.add(removeJokers);
+        deckTab.add(jokerPanel);
+        addJokers.addActionListener(e -> editDeck(deck::addJokers));
+        removeJokers.addActionListener(e -> editDeck(deck::removeJokers));
+
+        String[] cardNames = new String[Card.ORDINALS];
+        for (int o = 0; o < cardNames.length; o++) cardNames[o] = Card.ofOrdinal(o).toString();
+        JComboBox<String> weightCard = stylizeCombo(new JComboBox<>(cardNames));
+        JTextField weightField = stylizeField(new JTextField("1.0", 4));
+        JButton setWeight = stylizeButtonSmall("Set");
+        JButton resetWeights = stylizeButtonSmall("Reset Weights");
+        JPanel weightPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        weightPanel.setOpaque(false);
+        weightPanel.add(weightCard); weightPanel.add(weightField); weightPanel.add(setWeight);
+        deckTab.add(weightPanel);
+        deckTab.add(resetWeights);
+        weightCard.addActionListener(e -> weightField.setText(String.valueOf(deck.weight(weightCard.getSelectedIndex()))));
+        setWeight.addActionListener(e -> {
+            if (deckBusy()) return;
+            try {
+                deck.setWeight(weightCard.getSelectedIndex(), Double.parseDouble(weightField.getText().trim()));
+                deckWeightsChanged();
+            } catch (NumberFormatException ex){
+                JOptionPane.showMessageDialog(this, "Enter a numeric weight.", "Invalid Input", JOptionPane.ERROR_MESSAGE);
+            } catch (IllegalArgumentException ex){
+                JOptionPane.showMessageDialog(this, ex.getMessage(), "Invalid Input", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+        resetWeights.addActionListener(e -> {
+            if (deckBusy()) return;
+            deck.resetWeights();
+            weightField.setText("1.0");
+            deckWeightsChanged();
+        });
+
         deckTab.add(Box.createVerticalStrut(12));
         JButton resetDeckBtn = stylizeButtonSmall("Reset to Full Deck");
         deckTab.add(resetDeckBtn);
-        resetDeckBtn.addActionListener(e -> { deck.resetToFull(); updateDeckStatus(); });
+        resetDeckBtn.addActionListener(e -> editDeck(deck::resetToFull));
+
+        deckTab.add(Box.createVerticalStrut(8));
+        JPanel historyPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        historyPanel.setOpaque(false);
+        undoButton = stylizeButtonSmall("Undo");
+        redoButton = stylizeButtonSmall("Redo");
+        historyPanel.add(undoButton); historyPanel.add(redoButton);
+        // deck edits only; a draw or shuffle changes the deck underneath them, so it starts a new history
+        String historyNote = "Drawing or shuffling clears the undo history.";
+        undoButton.setToolTipText(historyNote);
+        redoButton.setToolTipText(historyNote);
+        JLabel historyLabel = new JLabel(historyNote);
+        historyLabel.setFont(historyLabel.getFont().deriveFont(Font.ITALIC, 11f));
+        historyPanel.add(historyLabel);
+        deckTab.add(historyPanel);
+        undoButton.addActionListener(e -> undoDeckEdit());
+        redoButton.addActionListener(e -> redoDeckEdit());
+        updateHistoryButtons();
 
         // NOTE: removed small preview from Deck tab per request (no mini panel here)
 
-        tabs.addTab("Deck", deckTab);
+        // ensure all labels inside this tab are white (extra safety)
+        setLabelsWhite(deckTab);
+        return deckTab;
+    }
 
-        /// ---------------- SETTINGS TAB (fixed layout) ----------------
+    /// ---------------- SETTINGS TAB (fixed layout) ----------------
+    private JPanel buildSettingsTab(Color rightBg){
         JPanel settingsTab = new JPanel(new GridBagLayout());
         settingsTab.setBackground(rightBg);
         settingsTab.setBorder(new EmptyBorder(12,12,12,12));
@@ -504,7 +871,9 @@ public class gamePanel extends JPanel {
         s.gridx = 0; s.gridy = 1;
         settingsTab.add(lblInd, s);
 
-        JTextField fieldInd = makeMulField(mulIndividual);
+        // Multipliers live in PayoutConfig (shared, hot-reloaded from the payout file)
+        PayoutConfig payouts = PayoutConfig.current();
+        JTextField fieldInd = makeMulField(payouts.individual);
         s.gridx = 1;
         settingsTab.add(fieldInd, s);
 
@@ -513,7 +882,7 @@ public class gamePanel extends JPanel {
         s.gridx = 0; s.gridy = 2;
         settingsTab.add(lblSuit, s);
 
-        JTextField fieldSuit = makeMulField(mulSuit);
+        JTextField fieldSuit = makeMulField(payouts.suit);
         s.gridx = 1;
         settingsTab.add(fieldSuit, s);
 
@@ -522,7 +891,7 @@ public class gamePanel extends JPanel {
         s.gridx = 0; s.gridy = 3;
         settingsTab.add(lblCol, s);
 
-        JTextField fieldCol = makeMulField(mulColour);
+        JTextField fieldCol = makeMulField(payouts.colour);
         s.gridx = 1;
         settingsTab.add(fieldCol, s);
 
@@ -531,7 +900,7 @@ public class gamePanel extends JPanel {
         s.gridx = 0; s.gridy = 4;
         settingsTab.add(lblFace, s);
 
-        JTextField fieldFace = makeMulField(mulFace);
+        JTextField fieldFace = makeMulField(payouts.face);
         s.gridx = 1;
         settingsTab.add(fieldFace, s);
 
@@ -548,90 +917,75 @@ public class gamePanel extends JPanel {
         s.gridx = 0; s.gridy = 6; s.gridwidth = 2;
         settingsTab.add(applyMulBtn, s);
 
+        JLabel evTitle = new JLabel("Expected return per $1 (current deck & weights)");
+        evTitle.setFont(evTitle.getFont().deriveFont(Font.BOLD, 12f));
+        s.gridx = 0; s.gridy = 7; s.gridwidth = 2;
+        settingsTab.add(evTitle, s);
+        evLabel.setForeground(Color.LIGHT_GRAY);
+        evLabel.setFont(evLabel.getFont().deriveFont(11f));
+        s.gridy = 8;
+        settingsTab.add(evLabel, s);
+        updateEvLabel();
+
         // apply action
+        // saved to the payout file too, so the next reload of that file keeps it
         applyMulBtn.addActionListener(e -> {
             try {
-                mulIndividual = Double.parseDouble(fieldInd.getText().trim());
-                mulSuit       = Double.parseDouble(fieldSuit.getText().trim());
-                mulColour     = Double.parseDouble(fieldCol.getText().trim());
-                mulFace       = Double.parseDouble(fieldFace.getText().trim());
-                JOptionPane.showMessageDialog(this,
-                    "Multipliers updated successfully.",
-                    "Updated",
-                    JOptionPane.INFORMATION_MESSAGE);
-            } catch (Exception ex){
+                PayoutConfig config = PayoutConfig.current().withMultipliers(
+                        Double.parseDouble(fieldInd.getText().trim()),
+                        Double.parseDouble(fieldSuit.getText().trim()),
+                        Double.parseDouble(fieldCol.getText().trim()),
+                        Double.parseDouble(fieldFace.getText().trim()));
+                PayoutConfig.publish(config);
+                updateEvLabel();
+                Path file = PayoutConfig.defaultFile();
+                try {
+                    PayoutConfig.save(config, file);
+                    JOptionPane.showMessageDialog(this,
+                        "Multipliers updated and saved to " + file + ".",
+                        "Updated",
+                        JOptionPane.INFORMATION_MESSAGE);
+                } catch (IOException ex){
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this,
+                        "Multipliers updated for this session only; could not save " + file + ": " + ex.getMessage(),
+                        "Not Saved",
+                        JOptionPane.WARNING_MESSAGE);
+                }
+            } catch (NumberFormatException ex){
                 JOptionPane.showMessageDialog(this,
                     "Enter valid numeric multiplier values.",
                     "Invalid Input",
                     JOptionPane.ERROR_MESSAGE);
+            } catch (IllegalArgumentException ex){
+                JOptionPane.showMessageDialog(this,
+                    ex.getMessage(),
+                    "Invalid Input",
+                    JOptionPane.ERROR_MESSAGE);
             }
         });
 
-        tabs.addTab("Settings", settingsTab);
-
-        // Left: Remaining cards panel (live-updating) - only here
-        JPanel leftInfo = new RoundedPanel(new Color(40,46,54), 12);
-        leftInfo.setOpaque(false);
-        leftInfo.setLayout(new BorderLayout());
-        leftInfo.setBorder(new EmptyBorder(12,12,12,12));
-        leftInfo.setPreferredSize(new Dimension(220, 0));
-
-        JLabel leftTitle = new JLabel("Remaining Cards");
-        leftTitle.setForeground(Color.WHITE);
-        leftTitle.setBorder(new EmptyBorder(6,6,6,6));
-        leftInfo.add(leftTitle, BorderLayout.NORTH);
-
-        // configure deckList appearance
-        deckList.setForeground(Color.WHITE);
-        deckList.setBackground(new Color(30,34,40));
-        deckList.setSelectionBackground(new Color(70,80,95));
-        deckList.setFont(deckList.getFont().deriveFont(12f));
-
-        JScrollPane leftScroll = new JScrollPane(deckList);
-        leftScroll.setBorder(BorderFactory.createLineBorder(new Color(60,60,60)));
-        leftScroll.setPreferredSize(new Dimension(200, 400));
-        leftInfo.add(leftScroll, BorderLayout.CENTER);
-
-        // Layout main content
-        JPanel content = new JPanel(new BorderLayout(12,12));
-        content.setOpaque(false);
-        content.add(centerPanel, BorderLayout.CENTER);
-        content.add(tabs, BorderLayout.EAST);    // smaller & darker
-        content.add(leftInfo, BorderLayout.WEST);
-
-        add(content, BorderLayout.CENTER);
-
-        // Hook up actions
-        drawButton.addActionListener(e -> {
-            Card c = deck.drawRandom(rng);
-            lastDrawn = c;
-            updateDeckStatus();
-            updateDeckList();
-            cardComponent.setCard(c);
-            cardComponent.repaint();
-            if (deck.size() == 0) drawButton.setEnabled(false);
-            if (c == null) JOptionPane.showMessageDialog(this, "Deck is empty. Reset or add cards.", "Empty Deck", JOptionPane.WARNING_MESSAGE);
-        });
-
-        // shuffle action
-        shuffleBtn.addActionListener(ev -> {
-            deck.shuffle(rng);
-            updateDeckStatus();
-            updateDeckList();
-            JOptionPane.showMessageDialog(this, "Deck shuffled.", "Shuffle", JOptionPane.INFORMATION_MESSAGE);
-        });
-
-        endButton.addActionListener(e -> enterResultState());
-
-        // ensure all labels inside these tabs are white (extra safety)
-        setLabelsWhite(deckTab);
         setLabelsWhite(settingsTab);
+        return settingsTab;
+    }
 
-        updateDeckStatus();
-        updateDeckList();
-        cardComponent.setCard(lastDrawn);
-        revalidate();
-        repaint();
+    // placeholder tab whose content is produced on first selection
+    private void addLazyTab(JTabbedPane tabs, String title, Supplier<JComponent> builder){
+        JPanel holder = new JPanel(new BorderLayout());
+        holder.setOpaque(false);
+        holder.putClientProperty("lazyBuilder", builder);
+        tabs.addTab(title, holder);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void buildLazyTab(JTabbedPane tabs, int index){
+        if (index < 0) return;
+        JComponent holder = (JComponent) tabs.getComponentAt(index);
+        Object builder = holder.getClientProperty("lazyBuilder");
+        if (builder == null) return;
+        holder.putClientProperty("lazyBuilder", null);
+        holder.add(((Supplier<JComponent>) builder).get(), BorderLayout.CENTER);
+        holder.revalidate();
     }
 
     // Update the left list with all remaining cards
@@ -661,6 +1015,7 @@ public class gamePanel extends JPanel {
 
     /* ---------------------- Result screen UI ---------------------- */
     private void enterResultState(){
+        cardComponent.finishAnimation();
         currentState = State.RESULT;
         removeAll();
 
@@ -696,22 +1051,40 @@ public class gamePanel extends JPanel {
         right.add(chosen);
         right.add(Box.createVerticalStrut(8));
 
-        double multiplier = getMultiplierForChosen();
+        PayoutConfig payouts = PayoutConfig.current();
+        double multiplier = payouts.forType(chosenType);
         JLabel potential = new JLabel(String.format("Potential payout: $%.2f (bet × %.2f)", betAmount * multiplier, multiplier));
         potential.setForeground(Color.WHITE);
         right.add(potential);
         right.add(Box.createVerticalStrut(8));
 
-        int net = won ? (int) Math.round(betAmount * multiplier) : -betAmount;
-        JLabel netLbl = new JLabel((net >= 0 ? "Gained: $" : "Lost: $") + Math.abs(net));
+        long net = settleBet(bigCard, won, multiplier, JackpotPool.isHit(chosenType, won, bigCard, payouts));
+        long jackpot = lastJackpotCents;
+        JLabel netLbl = new JLabel((net >= 0 ? "Gained: " : "Lost: ") + WalletLedger.format(Math.abs(net)));
         netLbl.setForeground(net >= 0 ? new Color(18,150,31) : new Color(200,60,60));
         netLbl.setFont(netLbl.getFont().deriveFont(Font.BOLD, 18f));
         right.add(netLbl);
+        if (jackpot > 0){
+            right.add(Box.createVerticalStrut(8));
+            JLabel jackpotLbl = new JLabel("JACKPOT! +" + WalletLedger.format(jackpot));
+            jackpotLbl.setForeground(new Color(230,180,40));
+            jackpotLbl.setFont(jackpotLbl.getFont().deriveFont(Font.BOLD, 22f));
+            right.add(jackpotLbl);
+        }
         right.add(Box.createVerticalStrut(16));
 
         JLabel drawnLbl = new JLabel("Drawn card: " + (bigCard == null ? "None" : bigCard.toString()));
         drawnLbl.setForeground(Color.WHITE);
         right.add(drawnLbl);
+        right.add(Box.createVerticalStrut(8));
+
+        JLabel balanceLbl = new JLabel(playerName + " balance: " + WalletLedger.format(wallets.balance(playerName)));
+        balanceLbl.setForeground(Color.WHITE);
+        right.add(balanceLbl);
+        right.add(Box.createVerticalStrut(8));
+
+        sessionLabel.setForeground(new Color(180,190,200));
+        right.add(sessionLabel);
         right.add(Box.createVerticalStrut(18));
 
         JButton restart = stylizeButton("Restart Game");
@@ -719,7 +1092,7 @@ public class gamePanel extends JPanel {
         right.add(restart);
         right.add(Box.createVerticalStrut(8));
         JButton playAgain = stylizeButton("Play Again (keep deck & choice)");
-        playAgain.addActionListener(e -> enterPlayState());
+        playAgain.addActionListener(e -> { if (placeBet()) enterPlayState(); });
         right.add(playAgain);
 
         container.add(bigCardComp, BorderLayout.WEST);
@@ -732,25 +1105,75 @@ public class gamePanel extends JPanel {
 
     /* ---------------------- Helpers / logic ---------------------- */
     private boolean evaluateWin(Card drawn){
+        return wins(drawn, chosenType, chosenRank, chosenSuit, chosenColor);
+    }
+
+    // The bet rule shared with headless tables (RoundPipeline)
+    static boolean wins(Card drawn, ChosenType type, String rank, Suit suit, ColorType color){
         if (drawn == null) return false;
-        switch (chosenType){
+        switch (type){
             case INDIVIDUAL:
-                return drawn.rank.equals(chosenRank) && drawn.suit == chosenSuit;
+                return drawn.rank.equals(rank) && drawn.suit == suit;
             case SUIT:
-                return drawn.suit == chosenSuit;
+                return drawn.suit == suit;
             case COLOUR:
-                return drawn.color() == chosenColor;
+                return drawn.color() == color;
             default:
                 return drawn.isFace();
         }
     }
 
-    private double getMultiplierForChosen(){
-        switch (chosenType){
-            case INDIVIDUAL: return mulIndividual;
-            case SUIT: return mulSuit;
-            case COLOUR: return mulColour;
-            default: return mulFace;
+    // Debits the stake when a round starts; settled by settleBet() on the result screen.
+    // False, with the player told why, if the balance can't cover it.
+    private boolean placeBet(){
+        if (!wallets.debit(playerName, betAmount * 100L)){
+            JOptionPane.showMessageDialog(this, "Insufficient funds: " + playerName + " has "
+                    + WalletLedger.format(wallets.balance(playerName)) + ", the bet is $" + betAmount + ".",
+                    "Insufficient funds", JOptionPane.WARNING_MESSAGE);
+            return false;
+        }
+        jackpotPool.contribute(JackpotPool.contributionFor(betAmount * 100L, PayoutConfig.current()));
+        roundOpen = true;
+        events.publish(new GameEventBus.BetPlaced(playerName, betAmount * 100L, chosenType));
+        return true;
+    }
+
+    // A win returns the stake plus bet × multiplier, so the balance moves by the displayed net;
+    // a jackpot hit also drains the shared pool into the wallet (kept in lastJackpotCents).
+    // Returns the net cents, jackpot included.
+    private long settleBet(Card drawn, boolean won, double multiplier, boolean jackpotHit){
+        lastJackpotCents = 0;
+        if (!roundOpen) return 0;
+        roundOpen = false;
+        long stakeCents = betAmount * 100L;
+        long net = -stakeCents;
+        long jackpot = 0;
+        if (won){
+            jackpot = jackpotHit ? jackpotPool.award(jackpotEpoch) : 0;
+            wallets.credit(playerName, stakeCents + Math.round(stakeCents * multiplier) + jackpot);
+            net = Math.round(stakeCents * multiplier) + jackpot;
+            sessionWins++;
+        }
+        sessionRounds++;
+        sessionNetCents += net;
+        events.publish(new GameEventBus.RoundSettled(playerName, 1, won ? 1 : 0, net, wallets.balance(playerName),
+                sessionRounds, sessionWins, sessionNetCents));
+        recordRound(drawn, stakeCents, multiplier, net);
+        lastJackpotCents = jackpot;
+        return net;
+    }
+
+    // Appends the settled round to the analysts' history file; a write error stops recording.
+    private void recordRound(Card drawn, long stakeCents, double multiplier, long netCents){
+        RoundHistory.Writer history = RoundHistory.shared();
+        if (history == null || historyFailed) return;
+        try {
+            history.append(drawn == null ? -1 : drawn.ordinal(), chosenType,
+                    RoundHistory.target(chosenType, chosenRank, chosenSuit, chosenColor),
+                    stakeCents, multiplier, netCents, System.currentTimeMillis());
+        } catch (IOException ex){
+            historyFailed = true;
+            ex.printStackTrace();
         }
     }
 
@@ -770,11 +1193,11 @@ public class gamePanel extends JPanel {
         JPanel right = new JPanel(new FlowLayout(FlowLayout.RIGHT,8,0));
         right.setOpaque(false);
         JButton reset = stylizeButtonSmall("Reset Deck");
-        reset.addActionListener(e -> { deck.resetToFull(); updateDeckStatus(); updateDeckList(); });
+        reset.addActionListener(e -> editDeck(deck::resetToFull));
         right.add(reset);
         JButton help = stylizeButtonSmall("Help");
         help.addActionListener(a -> JOptionPane.showMessageDialog(this,
-                "How to play:\n1) Enter bet and choose type on the first screen.\n2) Click Next and use Draw to draw a random card.\n3) Use Deck controls to alter the deck.\n4) End game to see results.\nMultipliers are in Settings (inside the game).",
+                "How to play:\n1) Enter bet and choose type on the first screen.\n2) Click Next and use Draw to draw a random card.\n3) Use Deck controls to alter the deck (Ctrl+Z / Ctrl+Y undo and redo edits).\n4) End game to see results.\nMultipliers are in Settings (inside the game).",
                 "Help", JOptionPane.INFORMATION_MESSAGE));
         right.add(help);
 
@@ -783,18 +1206,101 @@ public class gamePanel extends JPanel {
     }
 
     private void updateTopInfo(){
-        String txt = String.format("<html><div style='color:white;padding:6px;'>Bet: $%d &nbsp;&nbsp; | &nbsp;&nbsp; Choice: %s &nbsp;&nbsp; | &nbsp;&nbsp; Deck size: %d</div></html>",
-                betAmount, chosenSummary(), deck.size());
+        PayoutConfig payouts = PayoutConfig.current();
+        String jackpot = !payouts.jackpotEnabled() ? "" : String.format(" &nbsp;&nbsp; | &nbsp;&nbsp; Jackpot: %s on %s",
+                WalletLedger.format(jackpotPool.balance()), Card.ofOrdinal(payouts.jackpotCard));
+        String txt = String.format("<html><div style='color:white;padding:6px;'>%s: %s &nbsp;&nbsp; | &nbsp;&nbsp; Bet: $%d &nbsp;&nbsp; | &nbsp;&nbsp; Choice: %s &nbsp;&nbsp; | &nbsp;&nbsp; Deck size: %d%s</div></html>",
+                playerName, WalletLedger.format(wallets.balance(playerName)), betAmount, chosenSummary(), deck.size(), jackpot);
         if (topInfoLabel != null) topInfoLabel.setText(txt);
     }
 
-    /* ---------------------- Card painter (unchanged) ---------------------- */
+    /* ---------------------- Card painter ---------------------- */
     private static class CardComponent extends JComponent {
+        private static final int ANIM_MS = 320;
+        private static final int SLIDE_PX = 36;
+
         private Card card = null;
-        void setCard(Card c){ this.card = c; repaint(); }
+
+        // Draw animation: both faces are rendered once into back buffers, each frame only
+        // blits them (flip + slide) and repaints the card's own rectangle.
+        private final javax.swing.Timer timer = new javax.swing.Timer(1000 / 60, e -> onFrame());
+        private BufferedImage fromFace, toFace;
+        private long animStart;
+        private Runnable onDone;
+        private final FrameStats stats = new FrameStats();
+
+        CardComponent(){
+            setOpaque(true); // fills its whole area, so partial repaints never reach the parent
+        }
+
+        void setCard(Card c){ finishAnimation(); this.card = c; repaint(); }
+
+        // Flips from the current card to c; done runs on the EDT once the new card has landed.
+        void animateTo(Card c, Runnable done){
+            finishAnimation();
+            Rectangle r = cardBounds();
+            if (!isShowing() || r.width <= 0 || r.height <= 0){
+                card = c;
+                repaint();
+                if (done != null) done.run();
+                return;
+            }
+            fromFace = renderFace(card, r.width, r.height);
+            toFace = renderFace(c, r.width, r.height);
+            card = c;
+            onDone = done;
+            animStart = System.nanoTime();
+            stats.start(animStart);
+            timer.start();
+            repaint(dirtyBounds());
+        }
+
+        private void onFrame(){
+            if (System.nanoTime() - animStart >= ANIM_MS * 1_000_000L) finishAnimation();
+            else repaint(dirtyBounds());
+        }
+
+        // Jumps to the end of a running animation (a new draw, deck edit or screen change).
+        void finishAnimation(){
+            if (fromFace == null) return;
+            timer.stop();
+            fromFace = null;
+            toFace = null;
+            stats.report();
+            repaint(dirtyBounds());
+            Runnable d = onDone;
+            onDone = null;
+            if (d != null) d.run();
+        }
+
+        private Rectangle cardBounds(){
+            int w = getWidth(), h = getHeight();
+            int cardW = Math.min((int) (w * 0.86), 420);
+            int cardH = Math.min((int) (h * 0.86), 620);
+            return new Rectangle((w - cardW)/2, (h - cardH)/2, cardW, cardH);
+        }
+
+        // card plus shadow, stroke and slide distance
+        private Rectangle dirtyBounds(){
+            Rectangle r = cardBounds();
+            return new Rectangle(r.x - 2, r.y - 2, r.width + 10, r.height + 12 + SLIDE_PX);
+        }
+
+        private BufferedImage renderFace(Card c, int cardW, int cardH){
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            BufferedImage img = gc != null
+                    ? gc.createCompatibleImage(cardW + 2, cardH + 2, Transparency.TRANSLUCENT)
+                    : new BufferedImage(cardW + 2, cardH + 2, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2 = img.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            paintCardBody(g2, c, 1, 1, cardW, cardH);
+            g2.dispose();
+            return img;
+        }
 
         @Override
         protected void paintComponent(Graphics g){
+            long paintStart = System.nanoTime();
             super.paintComponent(g);
             Graphics2D g2 = (Graphics2D) g.create();
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -803,13 +1309,35 @@ public class gamePanel extends JPanel {
             g2.setColor(new Color(20,22,26));
             g2.fillRect(0,0,w,h);
 
-            int cardW = Math.min((int) (w * 0.86), 420);
-            int cardH = Math.min((int) (h * 0.86), 620);
-            int x = (w - cardW)/2, y = (h - cardH)/2;
+            Rectangle r = cardBounds();
+            int cardW = r.width, cardH = r.height;
+            int x = r.x, y = r.y;
+
+            if (fromFace != null){
+                // first half folds the old face away, second half unfolds the new one as it slides in
+                double p = Math.min(1.0, (System.nanoTime() - animStart) / (ANIM_MS * 1_000_000.0));
+                boolean second = p >= 0.5;
+                double sx = second ? (p - 0.5) * 2 : 1 - p * 2;
+                int dw = Math.max(1, (int) Math.round(cardW * sx));
+                int dx = x + (cardW - dw)/2;
+                int dy = y + (second ? (int) Math.round(SLIDE_PX * (1 - sx)) : 0);
+                g2.setColor(new Color(0,0,0,80));
+                g2.fillRoundRect(dx+6, dy+8, dw, cardH, 26, 26);
+                g2.drawImage(second ? toFace : fromFace, dx - 1, dy - 1, dw + 2, cardH + 2, null);
+                g2.dispose();
+                stats.frame(paintStart, System.nanoTime());
+                return;
+            }
 
             g2.setColor(new Color(0,0,0,80));
             g2.fillRoundRect(x+6, y+8, cardW, cardH, 26, 26);
 
+            paintCardBody(g2, card, x, y, cardW, cardH);
+
+            g2.dispose();
+        }
+
+        private void paintCardBody(Graphics2D g2, Card card, int x, int y, int cardW, int cardH){
             GradientPaint gp = new GradientPaint(x, y, new Color(255,255,255), x, y+cardH, new Color(240,240,240));
             g2.setPaint(gp);
             RoundRectangle2D.Float rr = new RoundRectangle2D.Float(x,y,cardW,cardH,26,26);
@@ -835,12 +1363,12 @@ public class gamePanel extends JPanel {
                 g2.drawString(card.rank, x + 18, y + 36);
 
                 g2.setFont(new Font("Serif", Font.PLAIN, Math.max(20, cardW/12)));
-                g2.drawString(card.suit.glyph(), x + 18, y + 60);
+                g2.drawString(card.glyph(), x + 18, y + 60);
 
                 if (!card.isFace()){
                     g2.setFont(new Font("Serif", Font.BOLD, Math.max(96, cardW/2)));
                     FontMetrics fmCenter = g2.getFontMetrics();
-                    String glyph = card.suit.glyph();
+                    String glyph = card.glyph();
                     int gw = fmCenter.stringWidth(glyph);
                     g2.setColor(suitColor);
                     g2.drawString(glyph, x + (cardW - gw)/2, y + cardH/2 + fmCenter.getAscent()/3);
@@ -853,12 +1381,11 @@ public class gamePanel extends JPanel {
                 int sw = g2.getFontMetrics().stringWidth(rank);
                 g2.drawString(rank, x + cardW - 18 - sw, y + cardH - 18);
                 g2.setFont(new Font("Serif", Font.PLAIN, Math.max(18, cardW/14)));
-                String glyph2 = card.suit.glyph();
+                String glyph2 = card.glyph();
                 int sgw = g2.getFontMetrics().stringWidth(glyph2);
                 g2.drawString(glyph2, x + cardW - 18 - sgw, y + cardH - 40);
             }
 
-            g2.dispose();
         }
 
         private void drawFaceArt(Graphics2D g2, int x, int y, int w, int h, String rank, Suit suit, Color suitColor){
@@ -912,6 +1439,37 @@ public class gamePanel extends JPanel {
         }
     }
 
+    // Frame timing for the draw animation; -Dcarddrawer.frameStats=true prints one line per draw.
+    private static class FrameStats {
+        private static final long BUDGET_NS = 1_000_000_000L / 60;
+        private static final boolean ENABLED = Boolean.getBoolean("carddrawer.frameStats");
+        private long lastFrame, maxInterval, totalPaint, maxPaint;
+        private int frames, late;
+
+        void start(long now){
+            lastFrame = now;
+            maxInterval = totalPaint = maxPaint = 0;
+            frames = late = 0;
+        }
+
+        void frame(long paintStart, long paintEnd){
+            long interval = paintStart - lastFrame;
+            lastFrame = paintStart;
+            long paint = paintEnd - paintStart;
+            frames++;
+            totalPaint += paint;
+            maxPaint = Math.max(maxPaint, paint);
+            maxInterval = Math.max(maxInterval, interval);
+            if (interval > BUDGET_NS * 3 / 2) late++; // a frame missed its vsync slot
+        }
+
+        void report(){
+            if (!ENABLED || frames == 0) return;
+            System.out.printf("draw animation: %d frames, paint avg %.2f ms max %.2f ms, worst interval %.1f ms, %d late (budget %.1f ms)%n",
+                    frames, totalPaint / 1e6 / frames, maxPaint / 1e6, maxInterval / 1e6, late, BUDGET_NS / 1e6);
+        }
+    }
+
     /* ---------------------- Small UI helpers (styles) ---------------------- */
     private JButton stylizeButton(String text){
         JButton b = new JButton(text);
@@ -951,6 +1509,7 @@ public class gamePanel extends JPanel {
     private void shuffleBtnAction(JButton shuffleBtn){
         shuffleBtn.addActionListener(e -> {
             deck.shuffle(rng);
+            clearDeckHistory();
             updateDeckStatus();
             updateDeckList();
             JOptionPane.showMessageDialog(this, "Deck shuffled.", "Shuffle", JOptionPane.INFORMATION_MESSAGE);
@@ -958,13 +1517,231 @@ public class gamePanel extends JPanel {
     }
 
     private void updateDeckStatus(){
-        deckCountLabel.setText("Deck: " + deck.size() + " cards");
+        cardComponent.finishAnimation();
+        updateDeckCount();
         updateDeckList();
-        drawButton.setEnabled(deck.size() > 0);
         revalidate();
         repaint();
     }
 
+    private void updateDeckCount(){
+        deckCountLabel.setText("Deck: " + deck.size() + " cards" + (deck.isWeighted() ? " (weighted)" : ""));
+        drawButton.setEnabled(autoPlay == null && deck.size() > 0);
+        updateEvLabel();
+    }
+
+    // weights are not deck edits: they change the odds, not which cards are in the deck
+    private void deckWeightsChanged(){
+        updateDeckCount();
+        events.publish(new GameEventBus.DeckMutated("reweighted", deck.size()));
+    }
+
+    // Win chance and expected net per $1 staked for each bet type, with the chosen targets,
+    // from the weighted probability of the next draw.
+    private void updateEvLabel(){
+        PayoutConfig payouts = PayoutConfig.current();
+        StringBuilder sb = new StringBuilder("<html>");
+        for (ChosenType t : ChosenType.values()){
+            double p = deck.probability(c -> wins(c, t, chosenRank, chosenSuit, chosenColor));
+            double ev = p * payouts.forType(t) - (1 - p);
+            sb.append(String.format("%s: win %.1f%%, EV %+.3f<br>", t, p * 100, ev));
+        }
+        evLabel.setText(sb.append("</html>").toString());
+    }
+
+    /* ---------------------- Deck edit history ---------------------- */
+    private DeckHistory.Version currentDeckVersion(){
+        if (deckVersion == null) deckVersion = deck.snapshot(null);
+        return deckVersion;
+    }
+
+    // Applies a Deck tab edit, records the previous state for undo; returns whether the deck changed
+    private boolean editDeck(Runnable edit){
+        if (deckBusy()) return false;
+        cardComponent.finishAnimation();
+        DeckHistory.Version before = currentDeckVersion();
+        edit.run();
+        DeckHistory.Version after = deck.snapshot(before);
+        if (after == before) return false;
+        history.record(before, after);
+        showDeckVersion(before, after);
+        events.publish(new GameEventBus.DeckMutated("edited", deck.size()));
+        return true;
+    }
+
+    private void undoDeckEdit(){
+        if (currentState != State.PLAY || autoPlay != null || !history.canUndo()) return;
+        cardComponent.finishAnimation();
+        DeckHistory.Version from = currentDeckVersion();
+        DeckHistory.Version to = history.undo(from);
+        deck.restore(to);
+        showDeckVersion(from, to);
+        events.publish(new GameEventBus.DeckMutated("undo", deck.size()));
+    }
+
+    private void redoDeckEdit(){
+        if (currentState != State.PLAY || autoPlay != null || !history.canRedo()) return;
+        cardComponent.finishAnimation();
+        DeckHistory.Version from = currentDeckVersion();
+        DeckHistory.Version to = history.redo(from);
+        deck.restore(to);
+        showDeckVersion(from, to);
+        events.publish(new GameEventBus.DeckMutated("redo", deck.size()));
+    }
+
+    // draws and shuffles change the deck outside the edit history
+    private void clearDeckHistory(){
+        history.clear();
+        deckVersion = null;
+        updateHistoryButtons();
+    }
+
+    private void showDeckVersion(DeckHistory.Version from, DeckHistory.Version to){
+        deckVersion = to;
+        syncDeckList(from, to);
+        updateDeckCount();
+        updateTopInfo();
+        updateHistoryButtons();
+    }
+
+    // Moves the list model from one version to the next by removing dropped cards and
+    // appending new ones; falls back to a full rebuild only if the kept cards were reordered.
+    private void syncDeckList(DeckHistory.Version from, DeckHistory.Version to){
+        int[] before = from.ordinals();
+        for (int i = before.length - 1; i >= 0; i--){
+            if (!to.contains(before[i])) deckListModel.remove(i);
+        }
+        int[] kept = from.filtered(to.mask);
+        int[] target = to.ordinals();
+        for (int i = 0; i < kept.length; i++){
+            if (kept[i] != target[i]) { updateDeckList(); return; }
+        }
+        for (int i = kept.length; i < target.length; i++){
+            deckListModel.addElement(Card.ofOrdinal(target[i]).toString());
+        }
+    }
+
+    /* ---------------------- Auto-play ---------------------- */
+    private void startAutoPlay(){
+        if (deck.size() == 0){
+            JOptionPane.showMessageDialog(this, "Deck is empty. Reset or add cards.", "Empty Deck", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (wallets.balance(playerName) < betAmount * 100L){
+            JOptionPane.showMessageDialog(this, "Balance can't cover the $" + betAmount + " stake.", "Auto-play", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        cardComponent.finishAnimation();
+        autoPlay = new AutoPlay(deck, playerName, chosenType, chosenRank, chosenSuit, chosenColor, betAmount * 100L,
+                AUTO_RATE_VALUES[autoRateIndex], wallets, jackpotPool, RoundHistory.shared());
+        autoShown = null;
+        autoButton.setText("Stop Auto-play");
+        drawButton.setEnabled(false);
+        autoTimer.start();
+    }
+
+    // Takes the deck back from auto-play and folds its rounds into the session totals;
+    // subscribers get one RoundSettled for the whole run rather than one per round. The
+    // played round stays open on its own card: auto-play rounds were each settled already.
+    private void stopAutoPlay(){
+        if (autoPlay == null) return;
+        autoTimer.stop();
+        AutoPlay a = autoPlay;
+        autoPlay = null;
+        a.stop();
+        AutoPlay.Stats s = a.latest();
+        deck.copyFrom(a.deck());
+        sessionRounds += s.rounds;
+        sessionWins += s.wins;
+        sessionNetCents += s.netCents;
+        autoLabel.setText(autoSummary(s));
+        autoButton.setText("Auto-play");
+        clearDeckHistory();
+        updateDeckStatus();
+        cardComponent.setCard(lastDrawn);
+        updateTopInfo();
+        events.publish(new GameEventBus.DeckMutated("auto-played", deck.size()));
+        if (s.rounds > 0){
+            events.publish(new GameEventBus.RoundSettled(playerName, s.rounds, s.wins, s.netCents,
+                    wallets.balance(playerName), sessionRounds, sessionWins, sessionNetCents));
+        }
+        if (s.outOfFunds){
+            JOptionPane.showMessageDialog(this, "Auto-play stopped: balance can't cover the $" + betAmount + " stake.",
+                    "Auto-play", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    // Timer tick: at most one refresh per frame, and none if nothing was published since the last.
+    private void showAutoStats(){
+        if (autoPlay == null) return;
+        AutoPlay.Stats s = autoPlay.latest();
+        if (s == autoShown) return;
+        if (s.outOfFunds){ stopAutoPlay(); return; }
+        autoShown = s;
+        autoLabel.setText(autoSummary(s));
+        if (s.lastCard != null) cardComponent.setCard(s.lastCard);
+    }
+
+    private static String autoSummary(AutoPlay.Stats s){
+        return String.format("%,d rounds | %,.0f draws/s | %,d won | net %s%s | balance %s | %d left",
+                s.rounds, s.roundsPerSecond, s.wins, s.netCents > 0 ? "+" : "", WalletLedger.format(s.netCents),
+                WalletLedger.format(s.balanceCents), s.remaining);
+    }
+
+    // Deck changes wait until auto-play stops; it hands its deck back then.
+    private boolean deckBusy(){
+        if (autoPlay == null) return false;
+        JOptionPane.showMessageDialog(this, "Stop auto-play to change the deck.", "Auto-play", JOptionPane.INFORMATION_MESSAGE);
+        return true;
+    }
+
+    /* ---------------------- Event subscribers ---------------------- */
+    // Runs on the EDT. A draw animates in; if draws were conflated the list is rebuilt instead
+    // of removing just the latest card.
+    private class UiListener extends GameEventBus.Listener {
+        private long drawsSeen = 0;
+
+        @Override void handle(GameEventBus.Event e){
+            if (e instanceof GameEventBus.CardDrawn){
+                boolean contiguous = e.count == drawsSeen + 1;
+                drawsSeen = e.count;
+                showDrawn(((GameEventBus.CardDrawn) e).card, contiguous);
+            } else {
+                updateTopInfo();
+            }
+        }
+    }
+
+    private void showDrawn(Card c, boolean contiguous){
+        if (currentState == State.PLAY && c != lastDrawn) return; // a newer draw is on its way
+        if (currentState != State.PLAY){
+            updateDeckList();
+            updateDeckCount();
+            updateTopInfo();
+            return;
+        }
+        // count, list and top bar catch up once the card has landed, so no layout runs mid-animation
+        cardComponent.animateTo(c, () -> {
+            int i = contiguous ? deckListModel.indexOf(c.toString()) : -1;
+            if (i >= 0) deckListModel.remove(i);
+            else updateDeckList();
+            updateDeckCount();
+            updateTopInfo();
+        });
+    }
+
+    private void updateHistoryButtons(){
+        undoButton.setEnabled(history.canUndo());
+        redoButton.setEnabled(history.canRedo());
+    }
+
+    private void bindKey(KeyStroke key, String name, Runnable action){
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(key, name);
+        getActionMap().put(name, new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e){ action.run(); }
+        });
+    }
+
     /* ---------------------- Utility classes ---------------------- */
     private static class RoundedPanel extends JPanel {
         private final Color bg;
@@ -990,5 +1767,14 @@ public class gamePanel extends JPanel {
     public void paintComponent(Graphics g){
         super.paintComponent(g);
         if (currentState == State.PLAY) updateTopInfo();
+        if (!firstFramePainted){
+            firstFramePainted = true;
+            SwingUtilities.invokeLater(PayoutConfig::watchDefaultFile); // kept off the startup path
+        }
+        if (firstFrameHook != null){
+            Runnable hook = firstFrameHook;
+            firstFrameHook = null;
+            SwingUtilities.invokeLater(hook);
+        }
     }
 }